@@ -0,0 +1,33 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.dto.MemberImportRecord;
+import study.datajpa.repository.MemberBulkIngestService;
+
+import java.util.stream.IntStream;
+
+/**
+ * 벤치마크마다 임베디드 H2 로 애플리케이션 컨텍스트를 띄우고 데이터를 적재한다.
+ * 회원 "bench{i}" 은 나이 i % 100, 팀 "benchTeam{i % teams}" 로 만든다.
+ */
+final class BenchmarkContext {
+
+    static final int AGES = 100;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .profiles("bench")
+                .properties(properties)
+                .run();
+    }
+
+    static void seed(ConfigurableApplicationContext context, int members, int teams) {
+        context.getBean(MemberBulkIngestService.class).ingest(IntStream.range(0, members)
+                .mapToObj(i -> new MemberImportRecord("bench" + i, i % AGES, "benchTeam" + (i % teams))));
+    }
+}
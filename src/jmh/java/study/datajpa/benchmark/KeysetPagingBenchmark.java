@@ -0,0 +1,73 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 깊이의 페이지를 offset 과 키셋으로 읽는 비용 비교.
+ * depth 는 전체 회원 중 몇 번째 행부터 읽는지 (0.0 ~ 1.0 비율).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeysetPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param("1000000")
+    public int members;
+
+    @Param({"0.0", "0.5", "0.99"})
+    public double depth;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private EntityManager em;
+    private int offset;
+    private MemberCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, members, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+        em = context.getBean(EntityManager.class);
+
+        offset = (int) (members * depth);
+        //키셋 커서는 offset 바로 앞 행을 가리킨다
+        if (offset > 0) {
+            Member previous = offsetPage(offset - 1, 1).get(0);
+            cursor = MemberCursor.of(previous);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    //count 쿼리 없이 같은 정렬로 offset 만큼 건너뛰고 읽는다
+    @Benchmark
+    public List<Member> offset() {
+        return offsetPage(offset, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Member> keyset() {
+        return memberRepository.findAllAfter(cursor, PAGE_SIZE).getContent();
+    }
+
+    private List<Member> offsetPage(int firstResult, int maxResults) {
+        return em.createQuery("select m from Member m order by m.username, m.id", Member.class)
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+}
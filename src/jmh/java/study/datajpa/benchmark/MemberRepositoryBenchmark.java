@@ -0,0 +1,161 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.UsernameOnlyDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjection;
+import study.datajpa.repository.UsernameOnly;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 주요 경로 벤치마크. 데이터 크기는 -p members=100000 -p teams=1000 으로 바꾼다.
+ * 쓰기 벤치마크(bulkAgePlus, saveAll)는 롤백해서 데이터셋을 유지한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberRepositoryBenchmark {
+
+    @Param("10000")
+    public int members;
+
+    @Param("100")
+    public int teams;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate rollbackTx;
+    private List<Long> memberIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, members, teams);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        rollbackTx = new TransactionTemplate(transactionManager);
+
+        memberIds = new ArrayList<>();
+        readOnlyTx.executeWithoutResult(status -> {
+            for (Member member : memberRepository.findAll()) {
+                memberIds.add(member.getId());
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private Long randomId() {
+        return memberIds.get(ThreadLocalRandom.current().nextInt(memberIds.size()));
+    }
+
+    private String randomUsername() {
+        return "bench" + ThreadLocalRandom.current().nextInt(members);
+    }
+
+    @Benchmark
+    public Member findById() {
+        return memberRepository.findById(randomId()).orElseThrow();
+    }
+
+    @Benchmark
+    public String findByUsernameEntityGraph() {
+        return readOnlyTx.execute(status -> memberRepository.findByUsername(randomUsername()).get(0).getTeam().getName());
+    }
+
+    @Benchmark
+    public String findByUsernamePlain() {
+        return readOnlyTx.execute(status -> memberJpaRepository.findByUsername(randomUsername()).get(0).getTeam().getName());
+    }
+
+    @Benchmark
+    public List<MemberDto> findMemberDto() {
+        return memberRepository.findMemberDto();
+    }
+
+    @Benchmark
+    public Page<Member> findByAgePage() {
+        int age = ThreadLocalRandom.current().nextInt(BenchmarkContext.AGES);
+        return memberRepository.findByAge(age, PageRequest.of(1, 20, Sort.by("username")));
+    }
+
+    @Benchmark
+    public Integer bulkAgePlus() {
+        return rollbackTx.execute(status -> {
+            status.setRollbackOnly();
+            return memberRepository.bulkAgePlus(BenchmarkContext.AGES - 10);
+        });
+    }
+
+    @Benchmark
+    public Integer saveAll() {
+        return rollbackTx.execute(status -> {
+            status.setRollbackOnly();
+            List<Member> batch = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                batch.add(new Member("saveAll" + i, i));
+            }
+            memberRepository.saveAll(batch);
+            memberRepository.flush();
+            return batch.size();
+        });
+    }
+
+    @Benchmark
+    public void projectionUsernameOnly(Blackhole blackhole) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (UsernameOnly projection : memberRepository.findProjectionsByUsername(randomUsername(), UsernameOnly.class)) {
+                blackhole.consume(projection.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void projectionUsernameOnlyQuery(Blackhole blackhole) {
+        for (UsernameOnlyDto projection : memberRepository.findUsernameOnlyByUsername(randomUsername())) {
+            blackhole.consume(projection.getUsername());
+        }
+    }
+
+    @Benchmark
+    public void projectionUsernameOnlyDto(Blackhole blackhole) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (UsernameOnlyDto projection : memberRepository.findProjectionsByUsername(randomUsername(), UsernameOnlyDto.class)) {
+                blackhole.consume(projection.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void projectionNestedClosed(Blackhole blackhole) {
+        readOnlyTx.executeWithoutResult(status -> {
+            for (NestedClosedProjection projection : memberRepository.findProjectionsByUsername(randomUsername(), NestedClosedProjection.class)) {
+                blackhole.consume(projection.getUsername());
+                blackhole.consume(projection.getTeam().getName());
+            }
+        });
+    }
+}
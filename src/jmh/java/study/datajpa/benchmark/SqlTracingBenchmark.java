@@ -0,0 +1,81 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /members 조회(findMemberDtoPage) 처리량을 SQL 추적 방식별로 비교한다.
+ * off: 추적 없음, sampled: datajpa.sql.trace 기본값(1/100 + 느린 쿼리), all: 모든 statement 기록,
+ * p6spy: 이전 설정(p6spy-spring-boot-starter, 모든 statement 동기 기록).
+ * 로그는 콘솔 대신 build/jmh-sql-trace.log 로 보낸다.
+ * ./gradlew jmh -Pjmh.includes=SqlTracingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class SqlTracingBenchmark {
+
+    @Param({"off", "sampled", "all", "p6spy"})
+    public String tracing;
+
+    @Param("10000")
+    public int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(properties(tracing));
+        BenchmarkContext.seed(context, members, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    private static String[] properties(String tracing) {
+        String[] logging = {
+                "logging.file.name=build/jmh-sql-trace.log",
+                "logging.pattern.console=",
+                "logging.level.p6spy=info",
+                "logging.level.study.datajpa.sql.trace.SQL=info"
+        };
+        switch (tracing) {
+            case "off":
+                return logging;
+            case "sampled":
+                return concat(logging, "datajpa.sql.trace.enabled=true");
+            case "all":
+                return concat(logging, "datajpa.sql.trace.enabled=true", "datajpa.sql.trace.sample-rate=1");
+            case "p6spy":
+                return concat(logging, "decorator.datasource.enabled=true", "decorator.datasource.p6spy.enable-logging=true");
+            default:
+                throw new IllegalArgumentException(tracing);
+        }
+    }
+
+    private static String[] concat(String[] base, String... extra) {
+        String[] result = new String[base.length + extra.length];
+        System.arraycopy(base, 0, result, 0, base.length);
+        System.arraycopy(extra, 0, result, base.length, extra.length);
+        return result;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberDto> membersPage() {
+        int page = ThreadLocalRandom.current().nextInt(100);
+        return memberRepository.findMemberDtoPage(PageRequest.of(page, 12, Sort.by(Sort.Direction.DESC, "id")));
+    }
+}
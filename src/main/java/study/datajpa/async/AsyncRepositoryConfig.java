@@ -0,0 +1,81 @@
+package study.datajpa.async;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MemberRepository 의 @Async 조회가 쓰는 실행기.
+ * 동시 실행 수를 커넥션 풀 크기에 맞추고, 대기열이 차면 바로 거절해 톰캣 스레드를 늘리지 않고도 요청을 받는다.
+ */
+@Slf4j
+@EnableAsync
+@Configuration
+@EnableConfigurationProperties(AsyncRepositoryProperties.class)
+public class AsyncRepositoryConfig {
+
+    public static final String REPOSITORY_EXECUTOR = "repositoryExecutor";
+
+    @Bean(name = REPOSITORY_EXECUTOR)
+    public TaskExecutor repositoryExecutor(AsyncRepositoryProperties properties, MeterRegistry registry,
+                                           ObjectProvider<DataSource> dataSources) {
+        //HikariPoolTuner 가 정한 크기를 따른다 (SQL 추적 래퍼 안쪽, replica 라우팅을 쓰면 primary 풀)
+        int poolSize = dataSources.orderedStream()
+                .map(dataSource -> DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .map(HikariDataSource::getMaximumPoolSize)
+                .orElse(10);
+        int maxConcurrency = properties.getMaxConcurrency() > 0 ? properties.getMaxConcurrency() : poolSize;
+
+        if (properties.getMode() == AsyncRepositoryProperties.Mode.CALLER) {
+            return new SyncTaskExecutor();
+        }
+        if (properties.getMode() == AsyncRepositoryProperties.Mode.VIRTUAL) {
+            ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+            if (virtualThreads != null) {
+                BoundedExecutor executor = new BoundedExecutor(virtualThreads, maxConcurrency, properties.getQueueCapacity());
+                Gauge.builder("datajpa.async.in_flight", executor, BoundedExecutor::inFlight).register(registry);
+                return new TaskExecutorAdapter(executor);
+            }
+            log.warn("virtual threads are not supported on Java {}, using a platform thread pool",
+                    System.getProperty("java.specification.version"));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("repository-");
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        Gauge.builder("datajpa.async.in_flight", executor,
+                e -> e.getActiveCount() + e.getThreadPoolExecutor().getQueue().size()).register(registry);
+        return executor;
+    }
+
+    //Java 11 로 컴파일하므로 JDK 21 의 Executors.newVirtualThreadPerTaskExecutor() 는 리플렉션으로 찾는다
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
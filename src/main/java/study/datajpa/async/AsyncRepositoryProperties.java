@@ -0,0 +1,27 @@
+package study.datajpa.async;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.async")
+public class AsyncRepositoryProperties {
+
+    public enum Mode {
+        //호출한 스레드에서 그대로 실행 (기존 동작)
+        CALLER,
+        //커넥션 풀 크기만큼의 전용 스레드 풀
+        PLATFORM,
+        //JDK 21+ 가상 스레드, 지원하지 않으면 PLATFORM 으로 동작
+        VIRTUAL
+    }
+
+    private Mode mode = Mode.CALLER;
+
+    //동시에 DB 를 쓰는 작업 수, 0 이면 커넥션 풀 크기를 따른다
+    private int maxConcurrency = 0;
+
+    //실행을 기다릴 수 있는 작업 수, 넘치면 거절(503)
+    private int queueCapacity = 200;
+}
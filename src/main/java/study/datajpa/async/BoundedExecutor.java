@@ -0,0 +1,63 @@
+package study.datajpa.async;
+
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 작업마다 스레드를 만드는 실행기(가상 스레드) 앞에 동시 실행 수와 대기 수 제한을 둔다.
+ * 가상 스레드는 실행 슬롯을 기다리는 동안 블록돼도 비용이 거의 없다.
+ */
+class BoundedExecutor implements Executor, AutoCloseable {
+
+    private final ExecutorService delegate;
+    private final Semaphore running;
+    private final Semaphore admitted;
+    private final int capacity;
+
+    BoundedExecutor(ExecutorService delegate, int maxConcurrency, int queueCapacity) {
+        this.delegate = delegate;
+        this.capacity = maxConcurrency + queueCapacity;
+        this.running = new Semaphore(maxConcurrency);
+        this.admitted = new Semaphore(capacity);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            throw new TaskRejectedException("repository executor saturated");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    //실행 중이거나 대기 중인 작업 수
+    int inFlight() {
+        return capacity - admitted.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.audit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.AuditClock;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Optional;
+
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    @Bean
+    public DateTimeProvider auditingDateTimeProvider() {
+        return () -> Optional.of(AuditClock.now());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "datajpa.audit", name = "coarse-clock", havingValue = "true", matchIfMissing = true)
+    public CoarseClock coarseAuditClock(AuditProperties properties) {
+        CoarseClock clock = new CoarseClock(properties.getClockTick()) {
+            @Override
+            public void close() {
+                AuditClock.useSystemClock();
+                super.close();
+            }
+        };
+        AuditClock.use(clock);
+        return clock;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "datajpa.audit.history", name = "enabled", havingValue = "true")
+    public AuditHistoryWriter auditHistoryWriter(JdbcTemplate jdbcTemplate, EntityManagerFactory emf,
+                                                 AuditProperties properties, MeterRegistry registry) {
+        return new AuditHistoryWriter(jdbcTemplate, emf, properties.getHistory(), registry);
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.audit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.entity.BaseEntity;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * BaseEntity 의 변경을 {@link AuditHistoryWriter} 로 넘긴다. 이력 기능이 꺼져 있으면 아무것도 하지 않는다.
+ * 스프링 부트가 Hibernate 에 SpringBeanContainer 를 설정하므로 생성자 주입을 받는다.
+ */
+public class AuditHistoryListener {
+
+    private final ObjectProvider<AuditHistoryWriter> writer;
+
+    public AuditHistoryListener(ObjectProvider<AuditHistoryWriter> writer) {
+        this.writer = writer;
+    }
+
+    @PostPersist
+    public void postPersist(BaseEntity entity) {
+        record(entity, "INSERT");
+    }
+
+    @PostUpdate
+    public void postUpdate(BaseEntity entity) {
+        record(entity, "UPDATE");
+    }
+
+    @PostRemove
+    public void postRemove(BaseEntity entity) {
+        record(entity, "DELETE");
+    }
+
+    private void record(BaseEntity entity, String action) {
+        AuditHistoryWriter historyWriter = writer.getIfAvailable();
+        if (historyWriter != null) {
+            historyWriter.record(entity, action);
+        }
+    }
+}
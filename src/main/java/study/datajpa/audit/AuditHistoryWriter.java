@@ -0,0 +1,148 @@
+package study.datajpa.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.BaseEntity;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 감사 이력을 제한된 큐에 넣고 백그라운드 스레드가 JDBC batch 로 audit_history 에 추가한다.
+ * 트랜잭션 안의 변경은 커밋된 뒤에만 큐에 들어간다. 큐가 가득 차면 쓰기 경로를 막지 않고 버린다
+ * (datajpa.audit.history.dropped 메트릭).
+ */
+@Slf4j
+public class AuditHistoryWriter implements AutoCloseable {
+
+    private static final String INSERT = "insert into audit_history" +
+            " (entity_name, entity_id, action, auditor, occurred_at) values (?, ?, ?, ?, ?)";
+    private static final Object PENDING_KEY = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory emf;
+    private final BlockingQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final Counter dropped;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public AuditHistoryWriter(JdbcTemplate jdbcTemplate, EntityManagerFactory emf, AuditProperties.History properties,
+                              MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emf = emf;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSize = properties.getBatchSize();
+        this.dropped = Counter.builder("datajpa.audit.history.dropped")
+                .description("Audit events dropped because the queue was full")
+                .register(registry);
+        this.worker = new Thread(this::drain, "audit-history-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void record(BaseEntity entity, String action) {
+        AuditEvent event = new AuditEvent(Hibernate.getClass(entity).getSimpleName(),
+                String.valueOf(emf.getPersistenceUnitUtil().getIdentifier(entity)),
+                action, entity.getLastModifiedBy(), entity.getLastModifiedDate());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+        pendingEvents().add(event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AuditEvent> pendingEvents() {
+        List<AuditEvent> pending = (List<AuditEvent>) TransactionSynchronizationManager.getResource(PENDING_KEY);
+        if (pending == null) {
+            List<AuditEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(PENDING_KEY, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.forEach(AuditHistoryWriter.this::enqueue);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+                }
+            });
+            pending = events;
+        }
+        return pending;
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("failed to write {} audit events", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, event) -> {
+            ps.setString(1, event.entityName);
+            ps.setString(2, event.entityId);
+            ps.setString(3, event.action);
+            ps.setString(4, event.auditor);
+            ps.setTimestamp(5, event.occurredAt == null ? null : Timestamp.valueOf(event.occurredAt));
+        });
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private static final class AuditEvent {
+        private final String entityName;
+        private final String entityId;
+        private final String action;
+        private final String auditor;
+        private final LocalDateTime occurredAt;
+
+        private AuditEvent(String entityName, String entityId, String action, String auditor, LocalDateTime occurredAt) {
+            this.entityName = entityName;
+            this.entityId = entityId;
+            this.action = action;
+            this.auditor = auditor;
+            this.occurredAt = occurredAt;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.audit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.audit")
+public class AuditProperties {
+
+    //감사 시각을 tick 간격으로 갱신되는 시계에서 읽는다
+    private boolean coarseClock = true;
+    private Duration clockTick = Duration.ofMillis(10);
+
+    private final History history = new History();
+
+    @Getter @Setter
+    public static class History {
+        //audit_history 테이블에 비동기로 이력을 남긴다
+        private boolean enabled = false;
+        private int queueCapacity = 10_000;
+        private int batchSize = 500;
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.audit;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 감사자(createdBy, lastModifiedBy)를 요청마다 한 번, 요청 밖에서는 스레드마다 한 번만 만든다.
+ * UUID.randomUUID() 의 SecureRandom 경합을 피하려고 ThreadLocalRandom 으로 버전 4 형식의 id 를 만든다.
+ */
+public class CachedAuditorAware implements AuditorAware<String> {
+
+    private static final String REQUEST_ATTRIBUTE = CachedAuditorAware.class.getName() + ".auditor";
+
+    private final ThreadLocal<Optional<String>> threadAuditor =
+            ThreadLocal.withInitial(() -> Optional.of(newAuditorId()));
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<String> getCurrentAuditor() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return threadAuditor.get();
+        }
+        Optional<String> auditor = (Optional<String>) request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (auditor == null) {
+            auditor = Optional.of(newAuditorId());
+            request.setAttribute(REQUEST_ATTRIBUTE, auditor, RequestAttributes.SCOPE_REQUEST);
+        }
+        return auditor;
+    }
+
+    static String newAuditorId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.audit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * tick 간격으로만 갱신되는 시계. 엔티티마다 시스템 시계를 읽고 LocalDateTime 을 만드는 대신
+ * 미리 만들어 둔 같은 인스턴스를 돌려준다. 정밀도는 tick 만큼 떨어진다.
+ */
+public class CoarseClock implements Supplier<LocalDateTime>, AutoCloseable {
+
+    private final ScheduledExecutorService scheduler;
+    private volatile LocalDateTime now = LocalDateTime.now();
+
+    public CoarseClock(Duration tick) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coarse-audit-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = Math.max(1, tick.toMillis());
+        scheduler.scheduleAtFixedRate(() -> now = LocalDateTime.now(), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public LocalDateTime get() {
+        return now;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
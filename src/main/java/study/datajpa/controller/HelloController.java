@@ -5,46 +5,77 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.KeysetSlice;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberNearCache;
 import study.datajpa.repository.MemberRepository;
 
-import javax.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequiredArgsConstructor
 public class HelloController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final MemberRepository memberRepository;
+    private final MemberNearCache memberNearCache;
 
     @GetMapping("/hello")
     public String hello() {
         return "hello";
     }
 
+    //near cache 를 거치고, miss 는 repositoryExecutor 에서 로딩된다
+    //datajpa.async.mode 가 caller 가 아니면 로딩을 기다리는 동안 톰캣 스레드를 반납한다
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
-        return memberRepository.findById(id).get().getUsername();
+    public CompletableFuture<String> findMember(@PathVariable("id") Long id) {
+        return memberNearCache.findById(id)
+                .thenApply(member -> member.get().getUsername());
     }
 
+    //Member 변환은 WebConfig 에 등록한 near cache 컨버터가 한다
     @GetMapping("/members2/{id}")
     public String findMember2(@PathVariable("id")Member member) {
         return member.getUsername();
     }
 
     @GetMapping("/members")
-    public Page<MemberDto> findMembers(@PageableDefault(size = 12, direction = Sort.Direction.DESC) Pageable pageable) {
-        return memberRepository.findAll(pageable).map(MemberDto::new);
+    public CompletableFuture<Page<MemberDto>> findMembers(@PageableDefault(size = 12, direction = Sort.Direction.DESC) Pageable pageable) {
+        return memberRepository.findMemberDtoPageAsync(pageable);
     }
 
-    @PostConstruct
-    public void init() {
-        for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("member" + i, i));
+    @GetMapping("/members/cursor")
+    public KeysetSlice<MemberDto> findMembersByCursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                                      @RequestParam(value = "size", defaultValue = "12") int size) {
+        MemberCursor memberCursor;
+        try {
+            memberCursor = MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        return memberRepository.findAllAfter(memberCursor, pageSize).map(MemberDto::new);
+    }
+
+    //repositoryExecutor 대기열이 가득 차면 바로 503 으로 돌려보낸다
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> repositoryExecutorSaturated(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
     }
 
 }
@@ -0,0 +1,40 @@
+package study.datajpa.controller;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpMethod;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * OSIV 인터셉터. GET 요청의 EntityManager 는 세션 기본값을 read-only, flush 모드를 MANUAL 로 연다.
+ * 요청 동안 로딩된 엔티티는 스냅샷을 만들지 않고, 트랜잭션이 끝날 때 변경 감지/flush 가 일어나지 않는다.
+ *
+ * GET 핸들러 안의 쓰기 트랜잭션은 flush 모드만 AUTO 로 돌아오고 엔티티는 여전히 read-only 로 로딩되므로
+ * 변경 감지에 기대는 수정은 반영되지 않는다. 쓰기는 GET 이 아닌 요청에서 한다.
+ */
+public class ReadOnlyGetEntityManagerInViewInterceptor extends OpenEntityManagerInViewInterceptor {
+
+    @Override
+    public void preHandle(WebRequest request) throws DataAccessException {
+        super.preHandle(request);
+        if (!isGet(request)) {
+            return;
+        }
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder != null) {
+            Session session = holder.getEntityManager().unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+    }
+
+    private static boolean isGet(WebRequest request) {
+        return request instanceof ServletWebRequest
+                && ((ServletWebRequest) request).getHttpMethod() == HttpMethod.GET;
+    }
+}
@@ -0,0 +1,34 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberNearCache;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final MemberNearCache memberNearCache;
+    private final EntityManagerFactory emf;
+
+    //spring.jpa.open-in-view 대신 등록한다. GET 요청은 read-only 세션으로 열린다
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        ReadOnlyGetEntityManagerInViewInterceptor interceptor = new ReadOnlyGetEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(emf);
+        registry.addWebRequestInterceptor(interceptor);
+    }
+
+    //String -> Member 는 도메인 클래스 컨버터(findById) 대신 near cache 를 거친다
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, Member.class,
+                id -> id.isEmpty() ? null : memberNearCache.getById(Long.valueOf(id)).orElse(null));
+    }
+}
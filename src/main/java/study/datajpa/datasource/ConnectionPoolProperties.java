@@ -0,0 +1,30 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.pool")
+public class ConnectionPoolProperties {
+
+    //spring.datasource.hikari.maximum-pool-size 를 직접 주지 않았을 때 코어 수로 크기를 정한다
+    private boolean autoSize = true;
+
+    //동시에 DB 를 쓰는 요청 수 예상치, 0 이면 코어 수 기준 크기만 쓴다
+    private int expectedConcurrency = 0;
+
+    //(코어 수 * 2) + 유효 디스크 수
+    private int effectiveSpindles = 1;
+
+    //이 시간보다 오래 반납되지 않은 커넥션은 스택과 함께 경고, 0 이면 끈다 (기본값)
+    //스트리밍 조회, StatelessSession 적재, bulk 청크는 정상적으로 커넥션을 오래 쥐므로 loadtest 프로필에서만 켠다
+    private Duration leakDetectionThreshold = Duration.ZERO;
+
+    public int maximumPoolSize(int cores) {
+        int bySize = cores * 2 + effectiveSpindles;
+        return expectedConcurrency > 0 ? Math.max(2, Math.min(bySize, expectedConcurrency)) : bySize;
+    }
+}
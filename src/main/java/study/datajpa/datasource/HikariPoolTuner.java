@@ -0,0 +1,63 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * spring.datasource.hikari 바인딩이 끝난 HikariDataSource 에 풀 크기와 누수 감지를 적용한다.
+ * 설정 파일에 값을 직접 준 항목은 건드리지 않는다. 풀은 첫 커넥션 요청 때 시작하므로 그 전에 적용된다.
+ */
+@Slf4j
+@Component
+public class HikariPoolTuner implements BeanPostProcessor, EnvironmentAware, Ordered {
+
+    private Environment environment;
+    private ConnectionPoolProperties properties;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+        //BeanPostProcessor 는 일반 빈보다 먼저 만들어지므로 설정을 직접 바인딩한다
+        this.properties = Binder.get(environment)
+                .bind("datajpa.pool", ConnectionPoolProperties.class)
+                .orElseGet(ConnectionPoolProperties::new);
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            tune((HikariDataSource) bean);
+        }
+        return bean;
+    }
+
+    private void tune(HikariDataSource dataSource) {
+        if (properties.isAutoSize() && !isSet("spring.datasource.hikari.maximum-pool-size")) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            dataSource.setMaximumPoolSize(properties.maximumPoolSize(cores));
+        }
+        if (!properties.getLeakDetectionThreshold().isZero()
+                && !isSet("spring.datasource.hikari.leak-detection-threshold")) {
+            dataSource.setLeakDetectionThreshold(properties.getLeakDetectionThreshold().toMillis());
+        }
+        log.info("connection pool {}: maximumPoolSize={}, leakDetectionThreshold={}ms", dataSource.getPoolName(),
+                dataSource.getMaximumPoolSize(), dataSource.getLeakDetectionThreshold());
+    }
+
+    //maximumPoolSize, SPRING_DATASOURCE_HIKARI_MAXIMUMPOOLSIZE 같은 다른 표기도 relaxed binding 으로 확인한다
+    private boolean isSet(String name) {
+        return Binder.get(environment).bind(name, String.class).isBound();
+    }
+
+    //spring.datasource.hikari 바인딩(ConfigurationPropertiesBindingPostProcessor) 이후에 실행
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
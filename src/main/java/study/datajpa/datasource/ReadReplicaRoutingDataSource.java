@@ -0,0 +1,181 @@
+package study.datajpa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))의 커넥션을 replica 로 보낸다.
+ * 트랜잭션 매니저는 readOnly 표시를 하기 전에 커넥션을 얻으므로 반드시 LazyConnectionDataSourceProxy 로 감싸서 쓴다.
+ * replica 에서 커넥션을 얻지 못하면 retryAfter 동안 제외하고 primary 로 보낸다.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaDataSourceProperties.Balancing balancing;
+    private final long retryAfterNanos;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<Replica> replicas,
+                                        ReplicaDataSourceProperties.Balancing balancing, long retryAfterNanos) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balancing = balancing;
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return source.get(primary);
+        }
+        Replica replica = choose(System.nanoTime());
+        if (replica == null) {
+            return source.get(primary);
+        }
+        replica.active.incrementAndGet();
+        try {
+            return replica.track(source.get(replica.dataSource));
+        } catch (SQLException | RuntimeException e) {
+            replica.active.decrementAndGet();
+            replica.downUntil = System.nanoTime() + retryAfterNanos;
+            log.warn("replica {} unavailable, routing reads to primary", replica.name, e);
+            return source.get(primary);
+        }
+    }
+
+    Replica choose(long now) {
+        List<Replica> available = new ArrayList<>(replicas.size());
+        int availableWeight = 0;
+        for (Replica replica : replicas) {
+            if (replica.isAvailable(now)) {
+                available.add(replica);
+                availableWeight += replica.weight;
+            }
+        }
+        if (available.isEmpty()) {
+            return null;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (balancing == ReplicaDataSourceProperties.Balancing.WEIGHTED) {
+            int point = random.nextInt(availableWeight);
+            for (Replica replica : available) {
+                point -= replica.weight;
+                if (point < 0) {
+                    return replica;
+                }
+            }
+        }
+
+        //동률이면 한쪽으로 몰리지 않도록 임의의 위치부터 훑는다
+        int offset = random.nextInt(available.size());
+        Replica least = null;
+        double leastLoad = Double.MAX_VALUE;
+        for (int i = 0; i < available.size(); i++) {
+            Replica replica = available.get((offset + i) % available.size());
+            double load = (double) replica.active.get() / replica.weight;
+            if (load < leastLoad) {
+                least = replica;
+                leastLoad = load;
+            }
+        }
+        return least;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    public static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final int weight;
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile long downUntil;
+
+        public Replica(String name, DataSource dataSource, int weight) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("replica weight must be positive: " + weight);
+            }
+            this.name = name;
+            this.dataSource = dataSource;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getActiveConnections() {
+            return active.get();
+        }
+
+        boolean isAvailable(long now) {
+            return downUntil == 0 || now - downUntil >= 0;
+        }
+
+        //close 가 성공하면 사용 중 커넥션 수를 줄이는 프록시, equals/hashCode 는 프록시 자신을 기준으로 한다
+        private Connection track(Connection target) {
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                        //close 가 실패하면 아직 반납되지 않은 것으로 센다
+                        if ("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+                            active.decrementAndGet();
+                        }
+                        return result;
+                    });
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package study.datajpa.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.datasource")
+public class ReplicaDataSourceProperties {
+
+    public enum Balancing {
+        //사용 중인 커넥션 수 / weight 가 가장 작은 replica
+        LEAST_CONNECTIONS,
+        //weight 비율로 무작위 선택
+        WEIGHTED
+    }
+
+    private Balancing balancing = Balancing.LEAST_CONNECTIONS;
+
+    //커넥션을 얻지 못한 replica 는 이 시간 동안 제외하고 primary 로 보낸다
+    private Duration replicaRetryAfter = Duration.ofSeconds(5);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int weight = 1;
+    }
+}
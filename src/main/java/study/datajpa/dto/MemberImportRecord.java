@@ -0,0 +1,19 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class MemberImportRecord {
+
+    private final String username;
+    private final int age;
+    private final String teamName;
+
+    public MemberImportRecord(String username, int age, String teamName) {
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.entity;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * 감사 시각(createdDate, lastModifiedDate) 공급원.
+ * 기본은 LocalDateTime.now() 이고, 설정에 따라 주기적으로 갱신되는 거친 시계로 바뀐다.
+ */
+public final class AuditClock {
+
+    private static final Supplier<LocalDateTime> SYSTEM = LocalDateTime::now;
+
+    private static volatile Supplier<LocalDateTime> source = SYSTEM;
+
+    private AuditClock() {
+    }
+
+    public static LocalDateTime now() {
+        return source.get();
+    }
+
+    public static void use(Supplier<LocalDateTime> clock) {
+        source = clock;
+    }
+
+    public static void useSystemClock() {
+        source = SYSTEM;
+    }
+}
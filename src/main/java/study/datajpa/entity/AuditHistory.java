@@ -0,0 +1,30 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 추가만 하는 감사 이력. AuditHistoryWriter 가 JDBC batch 로 직접 insert 하고 수정/삭제하지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class AuditHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "audit_history_id")
+    private Long id;
+
+    private String entityName;
+    private String entityId;
+    private String action;
+    private String auditor;
+    private LocalDateTime occurredAt;
+}
@@ -1,18 +1,71 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 @Entity
+//Team.members 컬렉션 캐시는 id 만 담으므로 Member 도 캐시해야 컬렉션 적중 시 N+1 이 생기지 않는다
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
-@NamedQuery(name = "Member.findByUsername",
-            query = "select m from Member m where m.username = :username")
+//MemberJpaRepository 의 JPQL 은 이름 있는 쿼리로 두어 시작할 때 검증/컴파일한다 (호출마다 문자열을 만들지 않는다)
+@NamedQueries({
+        @NamedQuery(name = "Member.findByUsername",
+                query = "select m from Member m where m.username = :username",
+                hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
+        @NamedQuery(name = Member.FIND_ALL, query = "select m from Member m"),
+        @NamedQuery(name = Member.COUNT_ALL, query = "select count(m) from Member m"),
+        @NamedQuery(name = Member.FIND_USERNAME_AND_GREATER_THEN,
+                query = "select m from Member m where m.username = :username and m.age > :age"),
+        @NamedQuery(name = Member.FIND_BY_PAGE,
+                query = "select m from Member m where m.age = :age order by m.username desc"),
+        @NamedQuery(name = Member.FIND_BY_PAGE_FIRST,
+                query = "select m from Member m where m.age = :age order by m.username, m.id"),
+        @NamedQuery(name = Member.FIND_BY_PAGE_AFTER,
+                query = "select m from Member m where m.age = :age" +
+                        " and (m.username > :username or (m.username = :username and m.id > :id))" +
+                        " order by m.username, m.id"),
+        @NamedQuery(name = Member.FIND_BY_TEAM_FIRST,
+                query = "select m from Member m where m.team.id = :teamId order by m.id"),
+        @NamedQuery(name = Member.FIND_BY_TEAM_AFTER,
+                query = "select m from Member m where m.team.id = :teamId and m.id > :id order by m.id"),
+        @NamedQuery(name = Member.COUNT_BY_AGE, query = "select count(m) from Member m where m.age = :age"),
+        @NamedQuery(name = Member.BULK_AGE_PLUS, query = "update Member m set m.age = m.age + 1 where m.age >= :age")
+})
+@Table(indexes = {
+        //username, age 조건은 아래 복합 인덱스의 선두 컬럼으로 처리된다
+        //키셋 페이징 (username, id) / (age, username, id) 정렬용
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"),
+        @Index(name = "idx_member_age_username_id", columnList = "age, username, member_id"),
+        //팀별 회원 키셋 페이징 (team_id, member_id)
+        @Index(name = "idx_member_team_id", columnList = "team_id, member_id")
+})
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue
+    public static final String FIND_ALL = "Member.jpa.findAll";
+    public static final String COUNT_ALL = "Member.jpa.countAll";
+    public static final String FIND_USERNAME_AND_GREATER_THEN = "Member.jpa.findUsernameAndGreaterThen";
+    public static final String FIND_BY_PAGE = "Member.jpa.findByPage";
+    public static final String FIND_BY_PAGE_FIRST = "Member.jpa.findByPageFirst";
+    public static final String FIND_BY_PAGE_AFTER = "Member.jpa.findByPageAfter";
+    public static final String FIND_BY_TEAM_FIRST = "Member.jpa.findByTeamFirst";
+    public static final String FIND_BY_TEAM_AFTER = "Member.jpa.findByTeamAfter";
+    public static final String COUNT_BY_AGE = "Member.jpa.countByAge";
+    public static final String BULK_AGE_PLUS = "Member.jpa.bulkAgePlus";
+
+    @Id
+    @GeneratedValue(generator = "member_seq_generator")
+    @GenericGenerator(name = "member_seq_generator", strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
 
@@ -41,7 +94,12 @@ public class Member extends BaseEntity {
     }
 
     public void changeTeam(Team team) {
+        //이전 팀 컬렉션은 이미 로딩된 경우에만 뺀다 (remove 는 컬렉션 전체를 읽는다)
+        if (this.team != null && Hibernate.isInitialized(this.team) && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
+        //mappedBy 컬렉션이 로딩 전이면 add 는 읽지 않고 큐에 쌓였다가 로딩/flush 때 반영된다
         team.getMembers().add(this);
     }
 
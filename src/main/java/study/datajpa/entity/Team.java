@@ -1,25 +1,47 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@NamedQueries({
+        @NamedQuery(name = Team.FIND_ALL, query = "select t from Team t"),
+        @NamedQuery(name = Team.COUNT_ALL, query = "select count(t) from Team t")
+})
 public class Team extends BaseEntity {
 
+    public static final String FIND_ALL = "Team.jpa.findAll";
+    public static final String COUNT_ALL = "Team.jpa.countAll";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_seq_generator")
+    @GenericGenerator(name = "team_seq_generator", strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
 
     private String name;
 
+    //size(), contains() 는 컬렉션을 읽지 않고 SQL 로 처리한다 (EXTRA)
+    //회원이 많은 팀은 TeamRepository.findMembersOfTeam 으로 나눠 읽는다
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @LazyCollection(LazyCollectionOption.EXTRA)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,37 @@
+package study.datajpa.loadtest;
+
+import org.h2.tools.Server;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.sql.SQLException;
+
+/**
+ * loadtest 프로필: 임베디드 H2 TCP 서버를 띄우고 {@link LoadTestRunner} 로 /members, /members/{id} 에 부하를 준다.
+ * ./gradlew bootRun --args='--spring.profiles.active=loadtest'
+ */
+@Profile("loadtest")
+@Configuration
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestConfig {
+
+    //DataSource 보다 먼저 서버가 떠 있어야 하므로 빈 생성 전에 시작한다
+    @Bean
+    public static BeanFactoryPostProcessor loadTestH2Server(Environment environment) {
+        return beanFactory -> {
+            int port = Binder.get(environment).bind("datajpa.loadtest.h2-port", Integer.class).orElse(9099);
+            try {
+                Server server = Server.createTcpServer("-tcp", "-tcpPort", String.valueOf(port), "-ifNotExists").start();
+                ((DefaultListableBeanFactory) beanFactory).registerDisposableBean("loadTestH2ServerStop", server::stop);
+            } catch (SQLException e) {
+                throw new IllegalStateException("failed to start embedded H2 server on port " + port, e);
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.loadtest")
+public class LoadTestProperties {
+
+    //loadtest 프로필에서 띄우는 임베디드 H2 TCP 서버 포트
+    private int h2Port = 9099;
+
+    //초당 요청 수 (응답을 기다리지 않고 일정한 간격으로 보낸다)
+    private int rps = 200;
+    private Duration warmup = Duration.ofSeconds(5);
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration timeout = Duration.ofSeconds(5);
+
+    //{id} 는 저장된 회원 id 로 바뀐다
+    private List<String> paths = new ArrayList<>(List.of("/members", "/members/{id}"));
+
+    //결과를 남기고 애플리케이션을 종료한다
+    private boolean exitOnFinish = true;
+}
@@ -0,0 +1,179 @@
+package study.datajpa.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 설정한 RPS 로 요청을 보내고 경로별 p50/p99 를 남긴다.
+ * 응답을 기다리지 않고 정해진 시각에 보내며, 지연은 예정 시각부터 재므로 서버가 밀려도 지연이 가려지지 않는다.
+ * 풀 대기 시간은 /actuator/metrics/hikaricp.connections.acquire 에서 함께 본다.
+ * 트래픽을 받기 시작한 뒤(readiness) 별도 스레드에서 시작하고, 예제 회원이 적재될 때까지 기다린다.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class LoadTestRunner {
+
+    private final LoadTestProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final ConfigurableApplicationContext context;
+
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("loadtest failed", e);
+            }
+        }, "loadtest");
+        thread.start();
+    }
+
+    private void run() throws InterruptedException {
+        String baseUrl = "http://localhost:" + environment.getRequiredProperty("local.server.port");
+        List<Long> ids = memberIds();
+
+        ExecutorService responseExecutor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(responseExecutor)
+                .connectTimeout(properties.getTimeout())
+                .build();
+        try {
+            for (String path : properties.getPaths()) {
+                drive(client, baseUrl, path, ids, properties.getWarmup());
+                Result result = drive(client, baseUrl, path, ids, properties.getDuration());
+                log.info("loadtest {} {} rps for {}s: requests={}, errors={}, p50={}ms, p99={}ms, max={}ms",
+                        path, properties.getRps(), properties.getDuration().toSeconds(), result.count, result.errors,
+                        millis(result.percentile(0.50)), millis(result.percentile(0.99)), millis(result.percentile(1.0)));
+            }
+        } finally {
+            responseExecutor.shutdownNow();
+        }
+
+        if (properties.isExitOnFinish()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private List<Long> memberIds() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        List<Long> ids = jdbcTemplate.queryForList("select member_id from member limit 1000", Long.class);
+        while (ids.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+            ids = jdbcTemplate.queryForList("select member_id from member limit 1000", Long.class);
+        }
+        return ids;
+    }
+
+    private Result drive(HttpClient client, String baseUrl, String path, List<Long> ids, Duration duration)
+            throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getRps();
+        int total = (int) (duration.toNanos() / intervalNanos);
+        long[] latencies = new long[total];
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        Phaser inFlight = new Phaser(1);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        ScheduledFuture<?> ticks = scheduler.scheduleAtFixedRate(() -> {
+            int n = sent.getAndIncrement();
+            if (n >= total) {
+                return;
+            }
+            long intended = start + n * intervalNanos;
+            String resolved = ids.isEmpty() ? path
+                    : path.replace("{id}", String.valueOf(ids.get(ThreadLocalRandom.current().nextInt(ids.size()))));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + resolved))
+                    .timeout(properties.getTimeout())
+                    .GET()
+                    .build();
+            inFlight.register();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        if (e != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[recorded.getAndIncrement()] = System.nanoTime() - intended;
+                        inFlight.arriveAndDeregister();
+                    });
+        }, 0, intervalNanos, TimeUnit.NANOSECONDS);
+
+        try {
+            long deadline = start + duration.toNanos();
+            while (sent.get() < total && System.nanoTime() < deadline + properties.getTimeout().toNanos()) {
+                Thread.sleep(10);
+            }
+        } finally {
+            ticks.cancel(false);
+            scheduler.shutdown();
+        }
+        try {
+            inFlight.awaitAdvanceInterruptibly(inFlight.arrive(), properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("loadtest {}: {} requests still in flight after timeout", path, inFlight.getUnarrivedParties());
+        }
+        return new Result(Arrays.copyOf(latencies, Math.min(recorded.get(), total)), errors.get());
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static final class Result {
+        private final long[] latencies;
+        private final int count;
+        private final long errors;
+
+        private Result(long[] latencies, long errors) {
+            Arrays.sort(latencies);
+            this.latencies = latencies;
+            this.count = latencies.length;
+            this.errors = errors;
+        }
+
+        long percentile(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * count) - 1;
+            return latencies[Math.max(0, Math.min(index, count - 1))];
+        }
+    }
+}
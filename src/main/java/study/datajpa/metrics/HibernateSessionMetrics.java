@@ -0,0 +1,81 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 세션 단위 Hibernate/JDBC 구간 시간 타이머.
+ * 타이머는 이 빈의 상태로 두고, {@link HibernateSessionMetricsInstaller} 가 EntityManager 를 만들 때마다
+ * 이 타이머를 쓰는 {@link HibernateSessionMetricsListener} 를 세션에 붙인다.
+ * 컨텍스트를 다시 띄우면 새 레지스트리에 새 타이머가 만들어진다. 바인딩 전에는 리스너를 붙이지 않는다.
+ */
+@Component
+public class HibernateSessionMetrics implements MeterBinder {
+
+    private volatile Timers timers;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        timers = new Timers(registry);
+    }
+
+    void install(EntityManager em) {
+        Timers current = timers;
+        if (current != null) {
+            em.unwrap(Session.class).addEventListeners(new HibernateSessionMetricsListener(current));
+        }
+    }
+
+    static final class Timers {
+        private final Timer connectionAcquire;
+        private final Timer statementExecute;
+        private final Timer batchExecute;
+        private final Timer flush;
+        private final Timer dirtyCheck;
+
+        private Timers(MeterRegistry registry) {
+            connectionAcquire = Timer.builder("hibernate.session.connection.acquire")
+                    .description("JDBC connection acquisition time")
+                    .register(registry);
+            statementExecute = Timer.builder("hibernate.session.statement.execute")
+                    .description("JDBC statement execution time, count is the number of statements")
+                    .register(registry);
+            batchExecute = Timer.builder("hibernate.session.batch.execute")
+                    .description("JDBC batch execution time")
+                    .register(registry);
+            flush = Timer.builder("hibernate.session.flush")
+                    .description("Session flush time")
+                    .register(registry);
+            dirtyCheck = Timer.builder("hibernate.session.dirty.check")
+                    .description("Dirty checking time during flush")
+                    .register(registry);
+        }
+
+        void connectionAcquired(long nanos) {
+            connectionAcquire.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void statementExecuted(long nanos) {
+            statementExecute.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void batchExecuted(long nanos) {
+            batchExecute.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void flushed(long nanos) {
+            flush.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        void dirtyChecked(long nanos) {
+            dirtyCheck.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
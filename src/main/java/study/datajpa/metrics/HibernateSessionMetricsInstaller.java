@@ -0,0 +1,30 @@
+package study.datajpa.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * EntityManagerFactory 가 EntityManager 를 만들 때마다 (트랜잭션, OSIV, 직접 생성 모두)
+ * {@link HibernateSessionMetrics} 의 리스너를 세션에 붙인다.
+ * hibernate.session.events.auto 는 기본 생성자로 리스너를 만들어 빈의 타이머를 넘길 수 없으므로 쓰지 않는다.
+ */
+@Component
+public class HibernateSessionMetricsInstaller implements BeanPostProcessor {
+
+    private final ObjectProvider<HibernateSessionMetrics> metrics;
+
+    public HibernateSessionMetricsInstaller(ObjectProvider<HibernateSessionMetrics> metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractEntityManagerFactoryBean) {
+            ((AbstractEntityManagerFactoryBean) bean).setEntityManagerInitializer(
+                    em -> metrics.ifAvailable(sessionMetrics -> sessionMetrics.install(em)));
+        }
+        return bean;
+    }
+}
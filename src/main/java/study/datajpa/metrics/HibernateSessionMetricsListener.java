@@ -0,0 +1,72 @@
+package study.datajpa.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * {@link HibernateSessionMetrics#install} 로 세션마다 하나씩 붙는다.
+ * 세션은 한 스레드에서만 쓰이므로 시작 시각을 필드에 그대로 둔다.
+ */
+class HibernateSessionMetricsListener extends BaseSessionEventListener {
+
+    private final HibernateSessionMetrics.Timers timers;
+
+    private long connectionAcquireStart;
+    private long statementStart;
+    private long batchStart;
+    private long flushStart;
+    private long dirtyCheckStart;
+
+    HibernateSessionMetricsListener(HibernateSessionMetrics.Timers timers) {
+        this.timers = timers;
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionAcquireStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        timers.connectionAcquired(System.nanoTime() - connectionAcquireStart);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        timers.statementExecuted(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        timers.batchExecuted(System.nanoTime() - batchStart);
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        timers.flushed(System.nanoTime() - flushStart);
+    }
+
+    @Override
+    public void dirtyCalculationStart() {
+        dirtyCheckStart = System.nanoTime();
+    }
+
+    @Override
+    public void dirtyCalculationEnd(boolean dirty) {
+        timers.dirtyChecked(System.nanoTime() - dirtyCheckStart);
+    }
+}
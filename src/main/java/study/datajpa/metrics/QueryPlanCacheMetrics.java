@@ -0,0 +1,43 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate 쿼리 플랜 캐시 적중/실패 (hibernate.generate_statistics 필요).
+ * 이름 있는 쿼리는 시작할 때 플랜 캐시에 올라가므로, 워밍업 이후의 miss 는 새 JPQL 이거나 크기 제한으로 밀려난 플랜이다.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        FunctionCounter.builder("hibernate.query.plan.cache.hits", statistics, Statistics::getQueryPlanCacheHitCount)
+                .description("Query plan cache hits")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.plan.cache.misses", statistics, Statistics::getQueryPlanCacheMissCount)
+                .description("Query plan cache misses (HQL parsed)")
+                .register(registry);
+        Gauge.builder("hibernate.query.plan.cache.hit.ratio", statistics, QueryPlanCacheMetrics::hitRatio)
+                .description("Query plan cache hit ratio since startup")
+                .register(registry);
+    }
+
+    private static double hitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 1.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 순수 JPA 리포지토리(MemberJpaRepository, TeamJpaRepository)의 메서드별 실행 시간.
+ * Spring Data 리포지토리는 스프링 부트가 spring.data.repository.invocations 로 이미 기록한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    static final String METRIC_NAME = "datajpa.repository.invocations";
+
+    private final MeterRegistry registry;
+    //정상 종료 타이머는 메서드별로 한 번만 만든다 (호출마다 태그를 만들고 레지스트리를 조회하지 않는다)
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("within(study.datajpa.repository..*) && @within(org.springframework.stereotype.Repository)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+            sample.stop(exception == null
+                    ? timers.computeIfAbsent(signature.getMethod(), method -> timer(signature, "none"))
+                    : timer(signature, exception));
+        }
+    }
+
+    private Timer timer(MethodSignature signature, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .tag("repository", signature.getDeclaringType().getSimpleName())
+                .tag("method", signature.getName())
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
@@ -0,0 +1,27 @@
+package study.datajpa.repository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 안이면 커밋 후에, 밖이면 바로 실행한다. 롤백되면 실행하지 않는다.
+ * 캐시를 커밋 전에 비우면 다른 요청이 아직 커밋된 옛 값을 다시 올릴 수 있다.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+/**
+ * 청크 처리 중 실패. {@link #getProgress()} 의 lastId 로 이어서 실행하면 된다.
+ */
+@Getter
+public class BulkUpdateException extends RuntimeException {
+
+    private final BulkUpdateProgress progress;
+
+    public BulkUpdateException(BulkUpdateProgress progress, Throwable cause) {
+        super("bulk update failed after " + progress, cause);
+        this.progress = progress;
+    }
+}
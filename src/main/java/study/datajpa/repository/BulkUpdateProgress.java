@@ -0,0 +1,23 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 청크 단위 bulk update 진행 상황. 실패하면 lastId 부터 다시 시작할 수 있다.
+ */
+@Getter
+@ToString
+public class BulkUpdateProgress {
+
+    //마지막으로 커밋된 청크의 가장 큰 member_id
+    private final long lastId;
+    private final long updatedRows;
+    private final int chunks;
+
+    public BulkUpdateProgress(long lastId, long updatedRows, int chunks) {
+        this.lastId = lastId;
+        this.updatedRows = updatedRows;
+        this.chunks = chunks;
+    }
+}
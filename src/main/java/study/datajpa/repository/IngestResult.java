@@ -0,0 +1,30 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+public class IngestResult {
+
+    private final long rows;
+    private final int teamsCreated;
+    private final Duration elapsed;
+
+    public IngestResult(long rows, int teamsCreated, Duration elapsed) {
+        this.rows = rows;
+        this.teamsCreated = teamsCreated;
+        this.elapsed = elapsed;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond(rows, elapsed);
+    }
+
+    static double rowsPerSecond(long rows, Duration elapsed) {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return rows * 1_000_000_000d / nanos;
+    }
+}
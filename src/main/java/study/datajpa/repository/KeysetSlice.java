@@ -0,0 +1,43 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 키셋 페이징 결과. offset 대신 다음 페이지를 여는 커서 토큰을 돌려준다.
+ * 전체 건수(count 쿼리)는 구하지 않는다.
+ */
+@Getter
+public class KeysetSlice<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public KeysetSlice(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * size + 1 건을 조회한 결과로 슬라이스를 만든다. 초과분이 있으면 다음 페이지가 있다.
+     */
+    public static <T> KeysetSlice<T> of(List<T> rows, int size, Function<? super T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetSlice<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new KeysetSlice<>(content, cursorOf.apply(content.get(size - 1)));
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <U> KeysetSlice<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = content.stream().map(converter).collect(Collectors.toList());
+        return new KeysetSlice<>(converted, nextCursor);
+    }
+}
@@ -0,0 +1,134 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 회원별 age 증가분을 메모리에서 모았다가 flush-interval 마다 {@link MemberAgeCounter#incrementAll} 로
+ * 한 트랜잭션, 한 JDBC batch 에 반영한다. 초당 수천 번 증가하는 회원도 주기마다 update 한 번이라 행 락을 두고 줄 서지 않는다.
+ *
+ * 증가분은 LongAdder 에 쌓이므로 같은 회원을 여러 스레드가 올려도 셀이 나뉘어 경합하지 않는다.
+ * 반영 전까지 DB 와 캐시의 age 는 그만큼 늦고, 프로세스가 비정상 종료되면 남은 증가분은 사라진다
+ * (정상 종료 시에는 close 에서 마지막으로 반영한다). 반영에 실패하면 증가분을 되돌려 다음 주기에 다시 시도한다.
+ */
+@Slf4j
+@Component
+public class MemberAgeAccumulator implements AutoCloseable {
+
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final MemberAgeCounter memberAgeCounter;
+    private final TransactionTemplate flushTransaction;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    public MemberAgeAccumulator(MemberAgeCounter memberAgeCounter, PlatformTransactionManager transactionManager,
+                                MeterRegistry registry,
+                                @Value("${datajpa.counter.flush-interval:100ms}") Duration flushInterval) {
+        this.memberAgeCounter = memberAgeCounter;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("datajpa.counter.pending", pending, Map::size)
+                .description("Members with age increments not yet flushed")
+                .register(registry);
+        FunctionCounter.builder("datajpa.counter.flushed", flushedRows, AtomicLong::get)
+                .description("Member rows updated by accumulated age increments")
+                .register(registry);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "member-age-accumulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, flushInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(Long id, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        LongAdder adder = pending.computeIfAbsent(id, key -> new LongAdder());
+        adder.add(delta);
+        if (pending.get(id) != adder) {
+            //flush 가 쉬고 있던 adder 를 맵에서 뺀 직후에 더했다. 아직 거둬 가지 않은 몫을 새 adder 로 옮긴다
+            long late = adder.sumThenReset();
+            if (late != 0) {
+                add(id, late);
+            }
+        }
+    }
+
+    //아직 반영되지 않은 증가분
+    public long pending(Long id) {
+        LongAdder adder = pending.get(id);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * 모인 증가분을 바로 반영하고 갱신된 행 수를 돌려준다. 스케줄러와 동시에 불려도 한 번에 하나씩 실행된다.
+     */
+    public synchronized int flush() {
+        SortedMap<Long, Long> deltas = new TreeMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            //한 주기 동안 증가가 없던 회원은 맵에서 빼고, 빼는 사이에 들어온 몫까지 거둔다
+            if (delta == 0 && pending.remove(entry.getKey(), adder)) {
+                delta = adder.sumThenReset();
+            }
+            if (delta != 0) {
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        try {
+            Integer rows = flushTransaction.execute(status -> memberAgeCounter.incrementAll(deltas));
+            int updated = rows == null ? 0 : rows;
+            flushedRows.addAndGet(updated);
+            return updated;
+        } catch (RuntimeException e) {
+            deltas.forEach(this::add);
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("failed to flush member age increments, retrying next interval", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+}
@@ -0,0 +1,163 @@
+package study.datajpa.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountStrategy;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.SortedMap;
+
+/**
+ * Member.age 를 읽지 않고 DB 에서 더한다 (update 한 번). 엔티티를 읽고 고쳐서 저장하는 것과 달리
+ * 행 락은 update 문 동안만 잡고, 버전 충돌이나 잃어버린 갱신이 없다.
+ *
+ * JPQL bulk update 는 Member 2차 캐시 리전 전체를 비우므로 JDBC 로 실행하고 바뀐 회원만 캐시에서 내린다.
+ * 호출한 쪽 영속성 컨텍스트에 같은 회원이 있으면 update 전에 flush 하고 update 뒤에 refresh 한다.
+ * 호출한 쪽 트랜잭션 안에서 실행되므로 엔티티는 영속 상태로 남고, 들고 있던 참조도 새 age 를 본다.
+ */
+@Component
+public class MemberAgeCounter {
+
+    private static final String INCREMENT = "update member set age = age + ? where member_id = ?";
+    private static final String INCREMENT_RETURNING = INCREMENT + " returning age";
+    private static final String SELECT_AGE = "select age from member where member_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory emf;
+    private final CountStrategy countStrategy;
+    private final MemberNearCache memberNearCache;
+    private volatile Boolean returningSupported;
+
+    public MemberAgeCounter(JdbcTemplate jdbcTemplate, EntityManagerFactory emf, CountStrategy countStrategy,
+                            MemberNearCache memberNearCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.emf = emf;
+        this.countStrategy = countStrategy;
+        this.memberNearCache = memberNearCache;
+    }
+
+    //갱신된 행 수 (회원이 없으면 0)
+    public int increment(Long id, long delta) {
+        List<Member> managed = flushManaged(Collections.singleton(id));
+        int rows = jdbcTemplate.update(INCREMENT, delta, id);
+        evict(Collections.singleton(id));
+        refresh(managed);
+        return rows;
+    }
+
+    /**
+     * 더한 뒤의 age. PostgreSQL 은 update ... returning 한 번으로, 그 밖에는 같은 트랜잭션에서 다시 읽는다
+     * (update 가 잡은 행 락이 커밋까지 유지되므로 다른 증가가 끼어들지 않는다). 트랜잭션 안에서 호출해야 한다.
+     */
+    public OptionalInt incrementAndGet(Long id, long delta) {
+        List<Member> managed = flushManaged(Collections.singleton(id));
+        List<Integer> ages;
+        if (returningSupported()) {
+            ages = jdbcTemplate.queryForList(INCREMENT_RETURNING, Integer.class, delta, id);
+        } else {
+            ages = jdbcTemplate.update(INCREMENT, delta, id) == 0
+                    ? Collections.emptyList()
+                    : jdbcTemplate.queryForList(SELECT_AGE, Integer.class, id);
+        }
+        evict(Collections.singleton(id));
+        refresh(managed);
+        return ages.isEmpty() ? OptionalInt.empty() : OptionalInt.of(ages.get(0));
+    }
+
+    /**
+     * id 별 증가분을 JDBC batch 한 번으로 반영한다. id 순서로 실행해서 동시에 도는 batch 끼리 행 락 순서가 엇갈리지 않는다.
+     * 없는 회원의 증가분은 버려진다.
+     */
+    public int incrementAll(SortedMap<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        List<Member> managed = flushManaged(deltas.keySet());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            args.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        int rows = 0;
+        for (int updated : jdbcTemplate.batchUpdate(INCREMENT, args)) {
+            //드라이버가 batch 결과 건수를 주지 않으면 SUCCESS_NO_INFO(-2)
+            rows += Math.max(updated, 0);
+        }
+        evict(deltas.keySet());
+        refresh(managed);
+        return rows;
+    }
+
+    private List<Member> flushManaged(Collection<Long> ids) {
+        EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (callerEm == null) {
+            return Collections.emptyList();
+        }
+        List<Member> managed = new ArrayList<>();
+        for (Long id : ids) {
+            Member member = PersistenceContextSupport.findManaged(callerEm, Member.class, id);
+            if (member != null) {
+                managed.add(member);
+            }
+        }
+        if (!managed.isEmpty()) {
+            //호출한 쪽의 변경 사항이 증가분을 덮어쓰지 않도록 먼저 반영한다
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                callerEm.flush();
+            }
+        }
+        return managed;
+    }
+
+    //옛 age 를 가진 엔티티를 DB 값으로 다시 읽는다 (영속 상태 유지, 이후 setter 도 반영된다)
+    private void refresh(List<Member> managed) {
+        if (managed.isEmpty()) {
+            return;
+        }
+        EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (callerEm != null) {
+            managed.forEach(callerEm::refresh);
+        }
+    }
+
+    private void evict(Collection<Long> ids) {
+        for (Long id : ids) {
+            emf.getCache().evict(Member.class, id);
+            memberNearCache.invalidate(id);
+        }
+        //age 조건 count 가 바뀐다. 커밋 전에 비우면 다른 요청이 옛 건수를 다시 캐시할 수 있다
+        AfterCommit.run(() -> countStrategy.invalidate(MemberRepositoryWriteAspect.MEMBER_TABLE));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            //커밋 전에 다른 트랜잭션이 옛 값을 2차 캐시에 다시 올렸을 수 있으므로 끝난 뒤 한 번 더 내린다
+            List<Long> evicted = new ArrayList<>(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evicted.forEach(id -> emf.getCache().evict(Member.class, id));
+                }
+            });
+        }
+    }
+
+    private boolean returningSupported() {
+        Boolean supported = returningSupported;
+        if (supported == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            supported = "PostgreSQL".equalsIgnoreCase(product);
+            returningSupported = supported;
+        }
+        return supported;
+    }
+}
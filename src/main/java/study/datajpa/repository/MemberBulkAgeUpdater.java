@@ -0,0 +1,139 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountStrategy;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * bulkAgePlus 를 member_id 순서의 청크로 나눠 실행한다.
+ * 청크마다 별도 트랜잭션으로 커밋하므로 행 락과 언두가 청크 크기만큼만 유지되고,
+ * 실패하면 {@link BulkUpdateException} 의 진행 상황(lastId)부터 다시 실행할 수 있다.
+ *
+ * 트랜잭션 밖에서 호출해야 한다. 청크는 다른 커넥션의 새 트랜잭션에서 실행되므로, 호출한 쪽 트랜잭션이
+ * 같은 행을 고쳐 두었다면 자기 행 락을 기다리다 lock timeout 이 난다. 트랜잭션 안에서 부르면
+ * {@link IllegalTransactionStateException} 을 던진다.
+ *
+ * 영속성 컨텍스트 전체를 비우는 대신 변경된 회원만 1차(OSIV)/2차 캐시에서 내린다.
+ * 쿼리 캐시는 age 에 의존하지 않는 findByUsername 만 쓰므로 비우지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberBulkAgeUpdater {
+
+    private static final String SELECT_CHUNK = "select member_id from member" +
+            " where member_id > :lastId and age >= :age" +
+            " order by member_id limit :limit";
+    private static final String UPDATE_CHUNK = "update member set age = age + 1" +
+            " where member_id in (:ids) and age >= :age";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final EntityManagerFactory emf;
+    private final CountStrategy countStrategy;
+    private final MemberNearCache memberNearCache;
+
+    @Value("${datajpa.bulk-update.chunk-size:1000}")
+    private int chunkSize;
+
+    public MemberBulkAgeUpdater(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                EntityManagerFactory emf, CountStrategy countStrategy, MemberNearCache memberNearCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.emf = emf;
+        this.countStrategy = countStrategy;
+        this.memberNearCache = memberNearCache;
+    }
+
+    public BulkUpdateProgress bulkAgePlus(int age) {
+        return bulkAgePlus(age, 0L, progress -> {
+        });
+    }
+
+    /**
+     * @param resumeAfterId 이 id 다음부터 처리한다. 처음이면 0
+     * @param listener      청크가 커밋될 때마다 호출된다
+     */
+    public BulkUpdateProgress bulkAgePlus(int age, long resumeAfterId, Consumer<BulkUpdateProgress> listener) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalTransactionStateException("bulkAgePlus must be called outside of a transaction");
+        }
+        //트랜잭션이 없어도 OSIV 로 열린 EntityManager 가 있으면 옛 age 를 가진 회원을 내린다
+        EntityManager callerEm = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+
+        BulkUpdateProgress progress = new BulkUpdateProgress(resumeAfterId, 0, 0);
+        try {
+            while (true) {
+                long lastId = progress.getLastId();
+                Chunk chunk = chunkTransaction.execute(status -> updateChunk(age, lastId));
+                if (chunk == null || chunk.ids.isEmpty()) {
+                    break;
+                }
+                //select 와 update 사이에 바뀌거나 지워진 행은 빠지도록 update 결과 건수를 더한다
+                progress = new BulkUpdateProgress(chunk.ids.get(chunk.ids.size() - 1),
+                        progress.getUpdatedRows() + chunk.updatedRows, progress.getChunks() + 1);
+                evict(callerEm, chunk.ids);
+                listener.accept(progress);
+                log.debug("bulkAgePlus progress {}", progress);
+            }
+        } catch (RuntimeException e) {
+            throw new BulkUpdateException(progress, e);
+        } finally {
+            countStrategy.invalidate(MemberRepositoryWriteAspect.MEMBER_TABLE);
+        }
+        return progress;
+    }
+
+    private Chunk updateChunk(int age, long lastId) {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_CHUNK, new MapSqlParameterSource()
+                .addValue("lastId", lastId)
+                .addValue("age", age)
+                .addValue("limit", chunkSize), Long.class);
+        int updatedRows = 0;
+        if (!ids.isEmpty()) {
+            updatedRows = jdbcTemplate.update(UPDATE_CHUNK, new MapSqlParameterSource()
+                    .addValue("ids", ids)
+                    .addValue("age", age));
+        }
+        return new Chunk(ids, updatedRows);
+    }
+
+    private void evict(EntityManager callerEm, List<Long> ids) {
+        for (Long id : ids) {
+            emf.getCache().evict(Member.class, id);
+            memberNearCache.evict(id);
+            if (callerEm != null) {
+                Member managed = PersistenceContextSupport.findManaged(callerEm, Member.class, id);
+                if (managed != null) {
+                    callerEm.detach(managed);
+                }
+            }
+        }
+    }
+
+    //ids 는 다음 청크 시작 위치와 캐시 제거에 쓰고, updatedRows 는 실제로 갱신된 행 수
+    private static final class Chunk {
+        private final List<Long> ids;
+        private final int updatedRows;
+
+        private Chunk(List<Long> ids, int updatedRows) {
+            this.ids = ids;
+            this.updatedRows = updatedRows;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.MemberImportRecord;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.count.CountStrategy;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 대량 회원 적재. StatelessSession 으로 1차 캐시와 변경 감지 없이 insert 하고,
+ * batch_size 건마다 커밋해서 락과 언두를 짧게 유지한다. 커밋하면 StatelessSession 이 쌓인 JDBC batch 를 먼저 실행한다.
+ * 팀은 이름 -> 팀 맵으로 한 번만 조회/생성한다.
+ *
+ * 엔티티 리스너(auditing)와 Team.members 컬렉션, 2차 캐시는 거치지 않는다.
+ * 실패하면 진행 중인 batch 만 롤백되고 이전에 커밋된 batch 는 남는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberBulkIngestService {
+
+    private final EntityManagerFactory emf;
+    private final CountStrategy countStrategy;
+    private final MemberNearCache memberNearCache;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    public IngestResult ingest(Stream<MemberImportRecord> records) {
+        SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+        long start = System.nanoTime();
+        long rows = 0;
+        int teamsCreated = 0;
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Map<String, Team> teams = loadTeams(session);
+            Transaction tx = session.beginTransaction();
+            try {
+                Iterator<MemberImportRecord> iterator = records.iterator();
+                while (iterator.hasNext()) {
+                    MemberImportRecord record = iterator.next();
+                    Member member = new Member(record.getUsername(), record.getAge());
+
+                    String teamName = record.getTeamName();
+                    if (teamName != null) {
+                        Team team = teams.get(teamName);
+                        if (team == null) {
+                            team = new Team(teamName);
+                            session.insert(team);
+                            teams.put(teamName, team);
+                            teamsCreated++;
+                        }
+                        //changeTeam 은 team.getMembers() 에 계속 쌓이므로 연관관계만 건다
+                        member.setTeam(team);
+                    }
+                    session.insert(member);
+
+                    if (++rows % batchSize == 0) {
+                        tx.commit();
+                        tx = session.beginTransaction();
+                        if (rows % (batchSize * 100L) == 0) {
+                            log.info("ingested {} members ({} rows/sec)", rows,
+                                    (long) IngestResult.rowsPerSecond(rows, Duration.ofNanos(System.nanoTime() - start)));
+                        }
+                    }
+                }
+                tx.commit();
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            } finally {
+                countStrategy.invalidate(MemberRepositoryWriteAspect.MEMBER_TABLE);
+                //새 id 를 미리 조회해 캐시된 빈 결과가 남지 않도록 비운다
+                memberNearCache.evictAll();
+                //StatelessSession 은 2차 캐시를 갱신하지 않으므로 영향받는 컬렉션/쿼리 캐시를 비운다
+                sessionFactory.getCache().evictCollectionData(Team.class.getName() + ".members");
+                sessionFactory.getCache().evictQueryRegions();
+            }
+        }
+
+        IngestResult result = new IngestResult(rows, teamsCreated, Duration.ofNanos(System.nanoTime() - start));
+        log.info("ingest finished: {}", result);
+        return result;
+    }
+
+    private Map<String, Team> loadTeams(StatelessSession session) {
+        List<Team> existing = session.createQuery("select t from Team t", Team.class).list();
+        Map<String, Team> teams = new HashMap<>();
+        for (Team team : existing) {
+            teams.putIfAbsent(team.getName(), team);
+        }
+        return teams;
+    }
+}
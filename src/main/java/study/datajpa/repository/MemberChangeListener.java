@@ -0,0 +1,118 @@
+package study.datajpa.repository;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountStrategy;
+
+/**
+ * 회원 insert/update/delete 가 커밋된 뒤 near cache 에서 해당 회원을 내린다 (Hibernate 커밋 후 이벤트).
+ * save, delete 뿐 아니라 더티 체킹으로 나간 update 도 잡는다. 롤백되면 아무것도 하지 않는다.
+ * 회원 count 캐시는 건수가 바뀌는 insert/delete 와, age 조건 count 가 바뀌는 age update 에서만 비운다.
+ * JPQL/JDBC bulk 쓰기와 StatelessSession 은 이벤트가 없으므로 각자 무효화한다 ({@link MemberRepositoryWriteAspect}).
+ */
+class MemberChangeListener implements Integrator, PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final String AGE = "age";
+
+    private final transient ObjectProvider<MemberNearCache> memberNearCache;
+    private final transient ObjectProvider<CountStrategy> countStrategy;
+
+    MemberChangeListener(ObjectProvider<MemberNearCache> memberNearCache, ObjectProvider<CountStrategy> countStrategy) {
+        this.memberNearCache = memberNearCache;
+        this.countStrategy = countStrategy;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        //없는 id 로 조회해서 캐시된 빈 결과가 있을 수 있다
+        evict(event.getEntity(), event.getId());
+        invalidateCounts(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        evict(event.getEntity(), event.getId());
+        if (ageChanged(event)) {
+            invalidateCounts(event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        evict(event.getEntity(), event.getId());
+        invalidateCounts(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    //회원이 아닌 엔티티는 커밋 후 처리 대상에 올리지 않는다
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return Member.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    private void evict(Object entity, Object id) {
+        if (entity instanceof Member && id instanceof Long) {
+            memberNearCache.ifAvailable(cache -> cache.evict((Long) id));
+        }
+    }
+
+    //이미 커밋된 뒤라 바로 비운다
+    private void invalidateCounts(Object entity) {
+        if (entity instanceof Member) {
+            countStrategy.ifAvailable(strategy -> strategy.invalidate(MemberRepositoryWriteAspect.MEMBER_TABLE));
+        }
+    }
+
+    //변경된 속성을 알 수 없으면 (더티 체킹 없이 update 된 경우) age 도 바뀌었다고 본다
+    private static boolean ageChanged(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (AGE.equals(names[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.repository;
+
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.repository.count.CountStrategy;
+
+import java.util.Collections;
+
+@Configuration
+public class MemberChangeListenerConfig {
+
+    //EntityManagerFactory 를 만들 때 리스너를 등록한다 (hibernate.integrator_provider)
+    //near cache, count 전략은 EntityManagerFactory 를 쓸 수 있으므로 ObjectProvider 로 나중에 꺼낸다
+    @Bean
+    public HibernatePropertiesCustomizer memberChangeListenerCustomizer(ObjectProvider<MemberNearCache> memberNearCache,
+                                                                        ObjectProvider<CountStrategy> countStrategy) {
+        MemberChangeListener listener = new MemberChangeListener(memberNearCache, countStrategy);
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> Collections.singletonList(listener));
+    }
+}
@@ -1,19 +1,25 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountStrategy;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final CountStrategy countStrategy;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -24,17 +30,21 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class)
+        return em.createNamedQuery(Member.FIND_ALL, Member.class)
                 .getResultList();
     }
 
+    public Stream<Member> streamAll(int fetchSize) {
+        return QueryStreams.detached(em.createNamedQuery(Member.FIND_ALL, Member.class), fetchSize, em);
+    }
+
     public Optional<Member> findById(Long id) {
         Member member = em.find(Member.class, id);
         return Optional.ofNullable(member);
     }
 
     public long count() {
-        return em.createQuery("select count(m) from Member m", Long.class)
+        return em.createNamedQuery(Member.COUNT_ALL, Long.class)
                 .getSingleResult();
     }
 
@@ -43,9 +53,7 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findUsernameAndGreaterThen(String username, int age) {
-        return em.createQuery("select m from Member m" +
-                        " where m.username = :username" +
-                        " and m.age > :age", Member.class)
+        return em.createNamedQuery(Member.FIND_USERNAME_AND_GREATER_THEN, Member.class)
                 .setParameter("username", username)
                 .setParameter("age", age)
                 .getResultList();
@@ -58,25 +66,38 @@ public class MemberJpaRepository {
     }
 
     public List<Member> findByPage(int age, int offset, int limit) {
-        return em.createQuery("select m from Member m" +
-                " where m.age = :age" +
-                " order by m.username desc")
+        return em.createNamedQuery(Member.FIND_BY_PAGE, Member.class)
                 .setParameter("age", age)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
                 .getResultList();
     }
 
-    public Long totalCount(int age) {
-        return em.createQuery("select count(m) from Member m" +
-                        " where m.age = :age", Long.class)
+    //키셋 페이징: offset 만큼 읽고 버리지 않도록 마지막 (username, id) 이후부터 조회
+    public List<Member> findByPageAfter(int age, MemberCursor cursor, int limit) {
+        if (cursor == null) {
+            return em.createNamedQuery(Member.FIND_BY_PAGE_FIRST, Member.class)
+                    .setParameter("age", age)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return em.createNamedQuery(Member.FIND_BY_PAGE_AFTER, Member.class)
                 .setParameter("age", age)
-                .getSingleResult();
+                .setParameter("username", cursor.getUsername())
+                .setParameter("id", cursor.getId())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public Long totalCount(int age) {
+        return countStrategy.count(MemberRepositoryWriteAspect.MEMBER_TABLE, "age=" + age,
+                () -> em.createNamedQuery(Member.COUNT_BY_AGE, Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult());
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age+1" +
-                " where m.age >= :age")
+        return em.createNamedQuery(Member.BULK_AGE_PLUS)
                 .setParameter("age", age)
                 .executeUpdate();
     }
@@ -0,0 +1,83 @@
+package study.datajpa.repository;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import study.datajpa.async.AsyncRepositoryConfig;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * /members/{id}, /members2/{id} 조회용 회원 near cache.
+ * 같은 id 의 동시 miss 는 하나의 로딩(em.find 한 번)을 함께 기다린다. Caffeine(W-TinyLFU)으로 크기를 제한한다.
+ *
+ * 캐시된 회원은 준영속 상태이고 여러 요청이 함께 보므로 읽기 용도로만 써야 한다.
+ * 엔티티 쓰기(더티 체킹 포함)는 {@link MemberChangeListener} 가, bulk 쓰기는 {@link MemberRepositoryWriteAspect} 가 커밋 후 무효화한다.
+ */
+@Component
+public class MemberNearCache {
+
+    private final EntityManagerFactory emf;
+    private final AsyncLoadingCache<Long, Optional<Member>> cache;
+
+    public MemberNearCache(EntityManagerFactory emf,
+                           @Qualifier(AsyncRepositoryConfig.REPOSITORY_EXECUTOR) TaskExecutor repositoryExecutor,
+                           MeterRegistry registry,
+                           @Value("${datajpa.near-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${datajpa.near-cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.emf = emf;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .executor(repositoryExecutor)
+                .recordStats()
+                .buildAsync(this::load);
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "member.near");
+    }
+
+    public CompletableFuture<Optional<Member>> findById(Long id) {
+        return cache.get(id);
+    }
+
+    public Optional<Member> getById(Long id) {
+        return findById(id).join();
+    }
+
+    //요청 EntityManager 와 섞이지 않도록 로딩마다 새 EntityManager 로 읽고 바로 닫는다
+    private Optional<Member> load(Long id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return Optional.ofNullable(em.find(Member.class, id));
+        } finally {
+            em.close();
+        }
+    }
+
+    //트랜잭션 안이면 커밋 후에 무효화한다. 커밋 전에 지우면 다른 요청이 옛 값을 다시 올릴 수 있다
+    public void invalidate(Long id) {
+        AfterCommit.run(() -> evict(id));
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(this::evictAll);
+    }
+
+    //이미 커밋된 변경(별도 트랜잭션의 청크, StatelessSession 적재)은 바로 내린다
+    public void evict(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
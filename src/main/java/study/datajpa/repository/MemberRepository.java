@@ -4,13 +4,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import study.datajpa.async.AsyncRepositoryConfig;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.UsernameOnlyDto;
 import study.datajpa.entity.Member;
 
 import javax.persistence.NamedQuery;
 import javax.persistence.QueryHint;
-import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
 
@@ -28,11 +31,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") Collection<String> names);
-
-    Page<Member> findByAge(int age, Pageable pageable);
-
     @Modifying(clearAutomatically = true)
     @Query("update Member m set m.age = m.age+1 where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
@@ -42,6 +40,11 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph(attributePaths = {"team"})
     List<Member> findAll();
 
+    //조회 전용 전체 조회: 로딩된 엔티티를 고쳐도 update 가 나가지 않는다 (고칠 엔티티는 findAll 로 읽는다)
+    @ReadOnlyQuery
+    @EntityGraph(attributePaths = {"team"})
+    List<Member> findReadOnlyAllBy();
+
     //JPQL + 엔티티 그래프
     @EntityGraph(attributePaths = {"team"})
     @Query("select m from Member m")
@@ -49,20 +52,32 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     //메서드 이름으로 쿼리에서 특히 편리하다.
     @EntityGraph(attributePaths = {"team"})
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Member> findByUsername(String username);
 
-    @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    //replica 가 설정되어 있으면 바깥 트랜잭션이 없을 때 replica 에서 읽는다
+    @ReadOnlyQuery
     Member findReadOnlyByUsername(String username);
 
     <T> List<T> findProjectionsByUsername(String username, Class<T> type);
 
+    //UsernameOnly 의 SpEL 식을 손으로 옮긴 DTO 조회: 엔티티/팀 로딩과 행마다 SpEL 평가가 없다
+    //팀이 없으면 팀 이름 자리는 빈 문자열이다
+    @Query("select new study.datajpa.dto.UsernameOnlyDto(" +
+            "concat(m.username, ' ', str(m.age), ' ', coalesce(t.name, '')))" +
+            " from Member m left join m.team t where m.username = :username")
+    List<UsernameOnlyDto> findUsernameOnlyByUsername(@Param("username") String username);
+
+    //비동기 조회: 커넥션 풀 크기에 맞춘 repositoryExecutor 에서 실행되고, 없으면 null 로 완료된다
+    @Async(AsyncRepositoryConfig.REPOSITORY_EXECUTOR)
+    CompletableFuture<Member> findAsyncById(Long id);
+
+    //findMemberDtoPage 를 repositoryExecutor 에서 실행한다 (구현은 MemberRepositoryImpl)
+    @Override
+    @Async(AsyncRepositoryConfig.REPOSITORY_EXECUTOR)
+    CompletableFuture<Page<MemberDto>> findMemberDtoPageAsync(Pageable pageable);
+
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
 
-    @Query(value = "SELECT m.member_id as id, m.username, t.name as teamName " +
-            "FROM member m left join team t",
-            countQuery = "SELECT count(*) from member",
-            nativeQuery = true)
-    Page<MemberProjection> findByNativeProjection(Pageable pageable);
-
 }
@@ -1,9 +1,52 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    //영속성 컨텍스트에 없는 id 만 IN 절 청크로 조회, 입력 순서를 유지하고 없는 id 는 빠진다
+    List<Member> findAllByIdBatched(Collection<Long> ids);
+
+    //이름 목록도 같은 크기의 청크로 나눠 목록 크기마다 새 SQL 이 생기지 않게 한다
+    List<Member> findByNames(Collection<String> names);
+
+    //count 쿼리는 CountStrategy 를 거친다
+    Page<Member> findByAge(int age, Pageable pageable);
+
+    Page<MemberProjection> findByNativeProjection(Pageable pageable);
+
+    //팀 이름까지 한 번에 조회 (left join), 지연 로딩 N+1 없음
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    //@Async 는 MemberRepository 에만 선언한다. 여기 두면 MemberRepositoryImpl 빈도 비동기가 되어 작업이 두 번 제출된다
+    CompletableFuture<Page<MemberDto>> findMemberDtoPageAsync(Pageable pageable);
+
+    //전체 스캔용 스트림: 트랜잭션 안에서 소비하고 닫아야 한다, 엔티티는 준영속 상태로 나온다
+    Stream<Member> streamAll(int fetchSize);
+
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    //batch_size 마다 flush + clear, 저장한 건수를 반환
+    int saveAllBatched(Iterable<Member> members);
+
+    //키셋 페이징: (username, id) 오름차순, cursor 가 null 이면 첫 페이지
+    KeysetSlice<Member> findAllAfter(MemberCursor cursor, int size);
+
+    KeysetSlice<Member> findByAgeAfter(int age, MemberCursor cursor, int size);
+
+    //age 를 읽지 않고 update 한 번으로 더한다, 갱신된 행 수를 반환 (MemberAgeCounter)
+    int incrementAge(Long id, long delta);
+
+    //더한 뒤의 age, 회원이 없으면 empty. PostgreSQL 은 update ... returning
+    OptionalInt incrementAndGetAge(Long id, long delta);
 }
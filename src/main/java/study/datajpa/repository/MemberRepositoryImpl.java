@@ -1,18 +1,231 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountStrategy;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final String KEYSET_PREDICATE =
+            " (m.username > :username or (m.username = :username and m.id > :id))";
+    private static final String KEYSET_ORDER = " order by m.username, m.id";
+
+    //네이티브 정렬은 인덱스가 있는 컬럼만 허용한다
+    private static final Map<String, String> NATIVE_SORT_COLUMNS = Map.of(
+            "id", "m.member_id",
+            "username", "m.username",
+            "age", "m.age");
+
+    private static final ProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
     private final EntityManager em;
+    private final CountStrategy countStrategy;
+    private final MemberAgeCounter memberAgeCounter;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Value("${datajpa.multi-get.chunk-size:512}")
+    private int multiGetChunkSize;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m").getResultList();
     }
+
+    @Override
+    public List<Member> findAllByIdBatched(Collection<Long> ids) {
+        return MultiGetSupport.findAllById(em, Member.class, ids, multiGetChunkSize);
+    }
+
+    @Override
+    public List<Member> findByNames(Collection<String> names) {
+        List<Member> result = new ArrayList<>();
+        for (List<String> chunk : MultiGetSupport.chunks(new ArrayList<>(new LinkedHashSet<>(names)), multiGetChunkSize)) {
+            result.addAll(em.createQuery("select m from Member m where m.username in :names", Member.class)
+                    .setParameter("names", chunk)
+                    .getResultList());
+        }
+        return result;
+    }
+
+    @Override
+    public Page<Member> findByAge(int age, Pageable pageable) {
+        String jpql = QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m");
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class)
+                .setParameter("age", age);
+        List<Member> content = paged(query, pageable).getResultList();
+
+        //첫 페이지가 size 보다 작거나 마지막 페이지면 count 쿼리를 생략한다
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countStrategy.count(MemberRepositoryWriteAspect.MEMBER_TABLE, "age=" + age,
+                        () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                                .setParameter("age", age)
+                                .getSingleResult()));
+    }
+
+    @Override
+    public Page<MemberProjection> findByNativeProjection(Pageable pageable) {
+        Query query = em.createNativeQuery("SELECT m.member_id as id, m.username, t.name as teamName" +
+                " FROM member m left join team t on m.team_id = t.team_id" +
+                nativeOrderBy(pageable.getSort()));
+        List<Object[]> rows = paged(query, pageable).getResultList();
+        List<MemberProjection> content = rows.stream()
+                .map(MemberRepositoryImpl::toMemberProjection)
+                .collect(Collectors.toList());
+
+        //team 은 PK 로 조인하므로 결과 행 수는 member 행 수와 같다
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countStrategy.count(MemberRepositoryWriteAspect.MEMBER_TABLE, null,
+                        () -> ((Number) em.createNativeQuery("SELECT count(*) from member")
+                                .getSingleResult()).longValue()));
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable) {
+        String jpql = QueryUtils.applySorting("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                " from Member m left join m.team t", pageable.getSort(), "m");
+        List<MemberDto> content = paged(em.createQuery(jpql, MemberDto.class), pageable).getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countStrategy.count(MemberRepositoryWriteAspect.MEMBER_TABLE, null,
+                        () -> em.createQuery("select count(m) from Member m", Long.class)
+                                .getSingleResult()));
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberDto>> findMemberDtoPageAsync(Pageable pageable) {
+        return CompletableFuture.completedFuture(findMemberDtoPage(pageable));
+    }
+
+    @Override
+    public Stream<Member> streamAll(int fetchSize) {
+        return QueryStreams.detached(em.createQuery("select m from Member m", Member.class), fetchSize, em);
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return QueryStreams.stream(em.createQuery(
+                "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                        " from Member m left join m.team t", MemberDto.class), fetchSize);
+    }
+
+    /**
+     * JDBC batch 크기 단위로 flush 해서 insert 를 묶어 보내고, 영속성 컨텍스트를 비워 메모리를 일정하게 유지한다.
+     * 호출한 쪽 트랜잭션의 영속성 컨텍스트도 함께 비워진다는 점에 주의.
+     */
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members) {
+        int count = 0;
+        for (Member member : members) {
+            em.persist(member);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+
+    @Override
+    public KeysetSlice<Member> findAllAfter(MemberCursor cursor, int size) {
+        String jpql = "select m from Member m" +
+                (cursor != null ? " where" + KEYSET_PREDICATE : "") +
+                KEYSET_ORDER;
+        return fetchSlice(em.createQuery(jpql, Member.class), cursor, size);
+    }
+
+    @Override
+    public KeysetSlice<Member> findByAgeAfter(int age, MemberCursor cursor, int size) {
+        String jpql = "select m from Member m" +
+                " where m.age = :age" +
+                (cursor != null ? " and" + KEYSET_PREDICATE : "") +
+                KEYSET_ORDER;
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class)
+                .setParameter("age", age);
+        return fetchSlice(query, cursor, size);
+    }
+
+    @Override
+    @Transactional
+    public int incrementAge(Long id, long delta) {
+        return memberAgeCounter.increment(id, delta);
+    }
+
+    @Override
+    @Transactional
+    public OptionalInt incrementAndGetAge(Long id, long delta) {
+        return memberAgeCounter.incrementAndGet(id, delta);
+    }
+
+    private KeysetSlice<Member> fetchSlice(TypedQuery<Member> query, MemberCursor cursor, int size) {
+        if (cursor != null) {
+            query.setParameter("username", cursor.getUsername())
+                    .setParameter("id", cursor.getId());
+        }
+        //다음 페이지 존재 여부 확인용으로 한 건 더 조회
+        List<Member> rows = query.setMaxResults(size + 1).getResultList();
+        return KeysetSlice.of(rows, size, m -> MemberCursor.of(m).encode());
+    }
+
+    private static <Q extends Query> Q paged(Q query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    private static String nativeOrderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return " order by m.member_id";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            String column = NATIVE_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("sort by " + order.getProperty() + " is not supported, allowed: "
+                        + NATIVE_SORT_COLUMNS.keySet());
+            }
+            orderBy.add(column + (order.isAscending() ? " asc" : " desc"));
+        }
+        return orderBy.toString();
+    }
+
+    private static MemberProjection toMemberProjection(Object[] row) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", row[0] == null ? null : ((Number) row[0]).longValue());
+        values.put("username", row[1]);
+        values.put("teamName", row[2]);
+        return PROJECTION_FACTORY.createProjection(MemberProjection.class, values);
+    }
 }
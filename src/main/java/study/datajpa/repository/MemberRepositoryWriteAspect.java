@@ -0,0 +1,38 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.count.CountStrategy;
+
+/**
+ * 회원 리포지토리를 통한 JPQL bulk 쓰기(bulk update, delete...InBatch) 이후 회원 기반 캐시를 커밋 후 무효화한다.
+ * 엔티티 단위 쓰기(save, delete, 더티 체킹)는 {@link MemberChangeListener} 가 맡는다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberRepositoryWriteAspect {
+
+    static final String MEMBER_TABLE = "member";
+
+    private final CountStrategy countStrategy;
+    private final MemberNearCache memberNearCache;
+
+    @Pointcut("target(study.datajpa.repository.MemberRepository) || target(study.datajpa.repository.MemberJpaRepository)")
+    void memberRepository() {
+    }
+
+    @Pointcut("execution(* bulk*(..)) || execution(* delete*InBatch(..))")
+    void bulkWrite() {
+    }
+
+    //JPQL bulk 쓰기는 엔티티 이벤트가 없어 어떤 회원이 바뀌었는지 모르므로 커밋 후 한 번에 비운다
+    @AfterReturning("memberRepository() && bulkWrite()")
+    public void afterBulkWrite() {
+        AfterCommit.run(() -> countStrategy.invalidate(MEMBER_TABLE));
+        memberNearCache.invalidateAll();
+    }
+}
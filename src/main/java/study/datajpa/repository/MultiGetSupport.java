@@ -0,0 +1,76 @@
+package study.datajpa.repository;
+
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * id 목록 조회를 IN 절 청크로 나눈다. 청크 안의 파라미터 개수는
+ * hibernate.query.in_clause_parameter_padding 으로 2의 거듭제곱에 맞춰지므로
+ * 목록 크기가 달라도 같은 SQL/쿼리 플랜을 다시 쓴다.
+ */
+final class MultiGetSupport {
+
+    private MultiGetSupport() {
+    }
+
+    /**
+     * 영속성 컨텍스트에 있는 엔티티는 그대로 쓰고 나머지만 청크마다 한 번씩 조회한다.
+     *
+     * @return 입력 순서대로, 없는 id 는 빠진다
+     */
+    static <T> List<T> findAllById(EntityManager em, Class<T> type, Collection<Long> ids, int chunkSize) {
+        Map<Long, T> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        EntityManager current = EntityManagerFactoryUtils.getTransactionalEntityManager(em.getEntityManagerFactory());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T managed = current != null ? PersistenceContextSupport.findManaged(current, type, id) : null;
+            if (managed != null) {
+                found.put(id, managed);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            EntityType<T> entity = em.getMetamodel().entity(type);
+            String jpql = "select e from " + entity.getName() + " e" +
+                    " where e." + entity.getId(Long.class).getName() + " in :ids";
+            PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+            for (List<Long> chunk : chunks(missing, chunkSize)) {
+                for (T loaded : em.createQuery(jpql, type).setParameter("ids", chunk).getResultList()) {
+                    found.put((Long) util.getIdentifier(loaded), loaded);
+                }
+            }
+        }
+        return inInputOrder(ids, found::get);
+    }
+
+    static <K, T> List<T> inInputOrder(Collection<K> keys, Function<K, T> lookup) {
+        List<T> result = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            T value = lookup.apply(key);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    static <T> List<List<T>> chunks(List<T> values, int chunkSize) {
+        List<List<T>> chunks = new ArrayList<>((values.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            chunks.add(values.subList(from, Math.min(from + chunkSize, values.size())));
+        }
+        return chunks;
+    }
+}
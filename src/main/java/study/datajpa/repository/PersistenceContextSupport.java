@@ -0,0 +1,26 @@
+package study.datajpa.repository;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+
+/**
+ * 영속성 컨텍스트(1차 캐시)에 이미 있는 엔티티를 DB 조회 없이 찾는다.
+ */
+final class PersistenceContextSupport {
+
+    private PersistenceContextSupport() {
+    }
+
+    /**
+     * @return 관리 중인 엔티티, 없으면 null (프록시는 반환하지 않는다)
+     */
+    static <T> T findManaged(EntityManager em, Class<T> type, Serializable id) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(type);
+        Object entity = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+        return type.isInstance(entity) ? type.cast(entity) : null;
+    }
+}
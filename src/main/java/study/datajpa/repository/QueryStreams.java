@@ -0,0 +1,37 @@
+package study.datajpa.repository;
+
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.stream.Stream;
+
+/**
+ * 전체 테이블 스캔용 스트림 조회 지원.
+ * forward-only 커서(ScrollableResults)로 fetchSize 만큼씩 읽고, 스냅샷을 만들지 않도록 readOnly 로 조회한다.
+ * 전체 스캔이 2차 캐시를 밀어내지 않도록 캐시는 읽지도 쓰지도 않는다.
+ * 스트림은 반드시 트랜잭션 안에서 소비하고 try-with-resources 로 닫아야 한다.
+ */
+final class QueryStreams {
+
+    private QueryStreams() {
+    }
+
+    static <T> Stream<T> stream(TypedQuery<T> query, int fetchSize) {
+        return query
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .setHint(QueryHints.HINT_CACHEABLE, false)
+                .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream();
+    }
+
+    /**
+     * 엔티티를 내보내는 즉시 준영속 상태로 만들어 영속성 컨텍스트가 커지지 않게 한다.
+     * 받은 엔티티에서 지연 로딩은 할 수 없으므로 연관 데이터가 필요하면 DTO 스트림을 쓴다.
+     */
+    static <T> Stream<T> detached(TypedQuery<T> query, int fetchSize, EntityManager em) {
+        return stream(query, fetchSize).peek(em::detach);
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.repository;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 조회 전용으로 따로 만든 finder (findReadOnly...By) 에만 붙인다. 일반 finder 에 붙이면 쓰기 트랜잭션에서 읽어 고친 값이
+ * 조용히 버려지므로 붙이지 않는다. GET 요청은 {@code ReadOnlyGetEntityManagerInViewInterceptor} 가 세션 전체를 read-only 로 연다.
+ * <ul>
+ *     <li>쿼리에 org.hibernate.readOnly 힌트를 준다. 로딩된 엔티티는 스냅샷을 만들지 않고 flush 때 변경 감지 대상에서 빠진다.
+ *     바깥 쓰기 트랜잭션에 참여해도 적용되며, 이미 영속성 컨텍스트에 있던 엔티티는 그대로 둔다</li>
+ *     <li>readOnly 트랜잭션으로 실행한다. 직접 트랜잭션을 시작하면 세션 기본값이 read-only, flush 모드가 MANUAL 이 되고
+ *     replica 가 설정되어 있으면 replica 에서 읽는다</li>
+ * </ul>
+ * 바깥 쓰기 트랜잭션의 flush 모드는 건드리지 않는다 (쿼리 전 auto flush 가 있어야 같은 트랜잭션에서 쓴 값이 보인다).
+ * 결과 엔티티를 고쳐도 update 가 나가지 않으므로, 고칠 엔티티는 findById 같은 일반 조회로 읽는다.
+ *
+ * 메서드에 @QueryHints 를 따로 선언하면 이 애노테이션의 힌트는 가려지므로 readOnly 힌트를 직접 함께 적는다.
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+@org.springframework.data.jpa.repository.QueryHints(@QueryHint(name = QueryHints.HINT_READONLY, value = "true"))
+public @interface ReadOnlyQuery {
+}
@@ -2,7 +2,6 @@ package study.datajpa.repository;
 
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Team;
-import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -25,7 +24,7 @@ public class TeamJpaRepository {
     }
 
     public List<Team> findAll() {
-        return em.createQuery("select t from Team t", Team.class)
+        return em.createNamedQuery(Team.FIND_ALL, Team.class)
                 .getResultList();
     }
 
@@ -35,7 +34,7 @@ public class TeamJpaRepository {
     }
 
     public long count() {
-        return em.createQuery("select count(t) from Team t", Long.class)
+        return em.createNamedQuery(Team.COUNT_ALL, Long.class)
                 .getSingleResult();
     }
 
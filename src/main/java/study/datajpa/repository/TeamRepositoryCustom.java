@@ -0,0 +1,16 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+
+    //영속성 컨텍스트에 없는 id 만 IN 절 청크로 조회, 입력 순서를 유지하고 없는 id 는 빠진다
+    List<Team> findAllByIdBatched(Collection<Long> ids);
+
+    //팀 회원을 member_id 순서로 나눠 읽는다, Team.members 전체를 로딩하지 않는다. cursor 가 null 이면 첫 페이지
+    KeysetSlice<Member> findMembersOfTeam(Long teamId, MemberCursor cursor, int size);
+}
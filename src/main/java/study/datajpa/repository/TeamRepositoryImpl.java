@@ -0,0 +1,39 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final EntityManager em;
+
+    @Value("${datajpa.multi-get.chunk-size:512}")
+    private int multiGetChunkSize;
+
+    @Override
+    public List<Team> findAllByIdBatched(Collection<Long> ids) {
+        return MultiGetSupport.findAllById(em, Team.class, ids, multiGetChunkSize);
+    }
+
+    @Override
+    public KeysetSlice<Member> findMembersOfTeam(Long teamId, MemberCursor cursor, int size) {
+        //첫 페이지/다음 페이지 JPQL 은 Member 의 이름 있는 쿼리 (시작할 때 검증된다)
+        String queryName = cursor != null ? Member.FIND_BY_TEAM_AFTER : Member.FIND_BY_TEAM_FIRST;
+        TypedQuery<Member> query = em.createNamedQuery(queryName, Member.class)
+                .setParameter("teamId", teamId);
+        if (cursor != null) {
+            query.setParameter("id", cursor.getId());
+        }
+        //다음 페이지 존재 여부 확인용으로 한 건 더 조회
+        List<Member> rows = query.setMaxResults(size + 1).getResultList();
+        return KeysetSlice.of(rows, size, m -> MemberCursor.of(m).encode());
+    }
+}
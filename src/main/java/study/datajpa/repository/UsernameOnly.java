@@ -2,6 +2,8 @@ package study.datajpa.repository;
 
 import org.springframework.beans.factory.annotation.Value;
 
+//open projection: Member 엔티티와 팀을 모두 로딩한 뒤 행마다 SpEL 을 평가한다
+//같은 값을 select 절에서 만드는 MemberRepository.findUsernameOnlyByUsername 을 사용할 것 (팀이 없으면 팀 이름 자리는 빈 문자열)
 public interface UsernameOnly {
 
     @Value("#{target.username + ' ' + target.age + ' ' + target.team.name}")
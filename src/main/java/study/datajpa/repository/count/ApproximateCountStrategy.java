@@ -0,0 +1,78 @@
+package study.datajpa.repository.count;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * 조건 없는 전체 건수는 DB 통계(추정 행 수)로 대신한다.
+ * 조건이 있거나 통계를 얻을 수 없으면 정확한 count 를 실행한다.
+ */
+public class ApproximateCountStrategy implements CountStrategy {
+
+    private enum Estimate {
+        H2("select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES where TABLE_NAME = ?") {
+            @Override
+            String tableName(String table) {
+                return table.toUpperCase(Locale.ROOT);
+            }
+        },
+        POSTGRESQL("select reltuples::bigint from pg_class where relname = ?"),
+        UNSUPPORTED(null);
+
+        private final String query;
+
+        Estimate(String query) {
+            this.query = query;
+        }
+
+        String tableName(String table) {
+            return table.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Estimate estimate;
+
+    public ApproximateCountStrategy(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long count(String table, String predicate, LongSupplier exactCount) {
+        Estimate estimate = estimate();
+        if (predicate != null || estimate == Estimate.UNSUPPORTED) {
+            return exactCount.getAsLong();
+        }
+        try {
+            List<Long> rows = jdbcTemplate.queryForList(estimate.query, Long.class, estimate.tableName(table));
+            if (rows.isEmpty() || rows.get(0) == null || rows.get(0) < 0) {
+                return exactCount.getAsLong();
+            }
+            return rows.get(0);
+        } catch (DataAccessException e) {
+            return exactCount.getAsLong();
+        }
+    }
+
+    private Estimate estimate() {
+        Estimate current = estimate;
+        if (current == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            if ("H2".equalsIgnoreCase(product)) {
+                current = Estimate.H2;
+            } else if ("PostgreSQL".equalsIgnoreCase(product)) {
+                current = Estimate.POSTGRESQL;
+            } else {
+                current = Estimate.UNSUPPORTED;
+            }
+            estimate = current;
+        }
+        return current;
+    }
+}
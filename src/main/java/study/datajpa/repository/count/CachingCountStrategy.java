@@ -0,0 +1,66 @@
+package study.datajpa.repository.count;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * (테이블, 조건) 별 count 결과를 TTL 동안 캐시한다.
+ * 테이블에 쓰기가 일어나면 {@link #invalidate(String)} 로 해당 테이블의 결과를 모두 버린다.
+ */
+public class CachingCountStrategy implements CountStrategy {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final CountStrategy delegate;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, Map<String, CachedCount>> cache = new ConcurrentHashMap<>();
+
+    public CachingCountStrategy(CountStrategy delegate, Duration ttl) {
+        this(delegate, ttl, System::nanoTime);
+    }
+
+    //테스트에서 시계를 바꿔 만료를 확인한다
+    CachingCountStrategy(CountStrategy delegate, Duration ttl, LongSupplier nanoTime) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public long count(String table, String predicate, LongSupplier exactCount) {
+        Map<String, CachedCount> tableCache = cache.computeIfAbsent(table, key -> new ConcurrentHashMap<>());
+        String key = predicate == null ? "" : predicate;
+        long now = nanoTime.getAsLong();
+
+        CachedCount cached = tableCache.get(key);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            return cached.value;
+        }
+
+        long value = delegate.count(table, predicate, exactCount);
+        if (tableCache.size() >= MAX_ENTRIES) {
+            tableCache.clear();
+        }
+        tableCache.put(key, new CachedCount(value, now));
+        return value;
+    }
+
+    @Override
+    public void invalidate(String table) {
+        cache.remove(table);
+        delegate.invalidate(table);
+    }
+
+    private static class CachedCount {
+        private final long value;
+        private final long loadedAt;
+
+        private CachedCount(long value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.repository.count;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.count")
+public class CountProperties {
+
+    public enum Mode {
+        EXACT, APPROXIMATE
+    }
+
+    private Mode mode = Mode.EXACT;
+
+    //0 이면 캐시하지 않는다 (기본값). 켜면 save/delete/bulk 를 거치지 않는 쓰기는 TTL 동안 반영되지 않을 수 있다
+    private Duration cacheTtl = Duration.ZERO;
+}
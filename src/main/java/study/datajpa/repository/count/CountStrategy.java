@@ -0,0 +1,23 @@
+package study.datajpa.repository.count;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Page 조회의 전체 건수(count 쿼리)를 구하는 방식.
+ * 정확한 count, 캐시, 통계 기반 추정 등을 설정으로 갈아 끼울 수 있다.
+ */
+public interface CountStrategy {
+
+    /**
+     * @param table      count 대상 테이블 이름
+     * @param predicate  조건을 식별하는 키. 조건 없는 전체 건수면 null
+     * @param exactCount 실제 count 쿼리
+     */
+    long count(String table, String predicate, LongSupplier exactCount);
+
+    /**
+     * 테이블에 쓰기가 일어났을 때 호출된다.
+     */
+    default void invalidate(String table) {
+    }
+}
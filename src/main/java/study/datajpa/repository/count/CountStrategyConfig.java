@@ -0,0 +1,22 @@
+package study.datajpa.repository.count;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@EnableConfigurationProperties(CountProperties.class)
+public class CountStrategyConfig {
+
+    @Bean
+    public CountStrategy countStrategy(CountProperties properties, JdbcTemplate jdbcTemplate) {
+        CountStrategy strategy = properties.getMode() == CountProperties.Mode.APPROXIMATE
+                ? new ApproximateCountStrategy(jdbcTemplate)
+                : new ExactCountStrategy();
+        if (properties.getCacheTtl().isZero() || properties.getCacheTtl().isNegative()) {
+            return strategy;
+        }
+        return new CachingCountStrategy(strategy, properties.getCacheTtl());
+    }
+}
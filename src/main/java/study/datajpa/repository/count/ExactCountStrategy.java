@@ -0,0 +1,11 @@
+package study.datajpa.repository.count;
+
+import java.util.function.LongSupplier;
+
+public class ExactCountStrategy implements CountStrategy {
+
+    @Override
+    public long count(String table, String predicate, LongSupplier exactCount) {
+        return exactCount.getAsLong();
+    }
+}
@@ -0,0 +1,8 @@
+package study.datajpa.sql;
+
+public class NPlusOneDetectedException extends RuntimeException {
+
+    public NPlusOneDetectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.sql.n-plus-one")
+public class NPlusOneProperties {
+
+    //같은 모양 select 가 한 트랜잭션에서 이 횟수에 도달하면 N+1 로 본다
+    private int threshold = 3;
+
+    //N+1 감지 n 건 중 1 건만 경고 로그 (메트릭은 모두 기록)
+    private int logSampleRate = 10;
+
+    //true 면 감지 즉시 NPlusOneDetectedException (테스트용)
+    private boolean fail = false;
+}
@@ -0,0 +1,26 @@
+package study.datajpa.sql;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청마다 SQL 카운트를 새로 시작하고, 트랜잭션 밖(OSIV 지연 로딩)의 같은 모양 select 반복도 요청 단위로 센다.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.endRequest();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hibernate 가 준비하는 모든 SQL 을 {@link QueryCounter} 에 기록하고,
+ * 같은 모양의 select 가 반복되면 N+1 의심으로 메트릭을 올리고 표본 경고를 남긴다.
+ */
+@Slf4j
+public class QueryCountInspector implements StatementInspector {
+
+    private final NPlusOneProperties properties;
+    private final Counter suspected;
+    private final AtomicLong detections = new AtomicLong();
+
+    public QueryCountInspector(NPlusOneProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.suspected = Counter.builder("datajpa.sql.n_plus_one.suspected")
+                .description("Repeated identical-shape selects within one transaction")
+                .register(registry);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int repeated = QueryCounter.record(sql);
+        //임계치에 처음 도달했을 때 한 번만 알린다
+        if (repeated == properties.getThreshold()) {
+            detected(sql, repeated);
+        }
+        return sql;
+    }
+
+    private void detected(String sql, int repeated) {
+        suspected.increment();
+        String message = "N+1 suspected: same select executed " + repeated + " times: " + SqlShape.of(sql);
+        if (properties.isFail()) {
+            throw new NPlusOneDetectedException(message);
+        }
+        int sampleRate = Math.max(1, properties.getLogSampleRate());
+        if (detections.getAndIncrement() % sampleRate == 0) {
+            log.warn(message);
+        }
+    }
+}
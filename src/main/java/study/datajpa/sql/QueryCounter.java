@@ -0,0 +1,133 @@
+package study.datajpa.sql;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 현재 스레드(요청, 테스트)에서 실행된 SQL 수.
+ * 같은 모양 select 반복 횟수는 트랜잭션 단위로 센다. 트랜잭션 밖의 select 는 {@link QueryCountFilter} 가 연
+ * 요청 범위 안에서만 센다 (OSIV 지연 로딩).
+ *
+ * 요청 범위 밖(repositoryExecutor, 스케줄러 같은 풀 스레드)에서는 트랜잭션이 끝날 때 카운트를 비운다.
+ * 스레드에 카운트가 계속 쌓여 작업끼리 섞이거나, 작업마다 한 번씩 실행된 같은 select 가 N+1 로 잡히지 않게 한다.
+ * 테스트는 검증할 구간 앞에서 {@link #reset()} 을 호출한다.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+    private static final Object TRANSACTION_SHAPES_KEY = new Object();
+
+    private QueryCounter() {
+    }
+
+    //요청 범위 시작/끝 (QueryCountFilter)
+    static void beginRequest() {
+        Counts counts = new Counts();
+        counts.requestScoped = true;
+        COUNTS.set(counts);
+    }
+
+    static void endRequest() {
+        COUNTS.remove();
+    }
+
+    public static void reset() {
+        boolean requestScoped = COUNTS.get().requestScoped;
+        Counts counts = new Counts();
+        counts.requestScoped = requestScoped;
+        COUNTS.set(counts);
+    }
+
+    public static int selectCount() {
+        return COUNTS.get().selects;
+    }
+
+    public static int insertCount() {
+        return COUNTS.get().inserts;
+    }
+
+    public static int updateCount() {
+        return COUNTS.get().updates;
+    }
+
+    public static int deleteCount() {
+        return COUNTS.get().deletes;
+    }
+
+    public static int totalCount() {
+        Counts counts = COUNTS.get();
+        return counts.selects + counts.inserts + counts.updates + counts.deletes + counts.others;
+    }
+
+    /**
+     * @return select 면 현재 범위에서 같은 모양이 실행된 횟수, 그 외 0
+     */
+    static int record(String sql) {
+        Counts counts = COUNTS.get();
+        Map<String, Integer> shapes = shapes(counts);
+        if (SqlShape.isSelect(sql)) {
+            counts.selects++;
+            return shapes == null ? 0 : shapes.merge(SqlShape.of(sql), 1, Integer::sum);
+        }
+        String head = sql.stripLeading();
+        String keyword = head.length() >= 6 ? head.substring(0, 6).toLowerCase(Locale.ROOT) : "";
+        switch (keyword) {
+            case "insert":
+                counts.inserts++;
+                break;
+            case "update":
+                counts.updates++;
+                break;
+            case "delete":
+                counts.deletes++;
+                break;
+            default:
+                counts.others++;
+        }
+        return 0;
+    }
+
+    //트랜잭션도 요청 범위도 없으면 null (반복을 세지 않는다)
+    @SuppressWarnings("unchecked")
+    private static Map<String, Integer> shapes(Counts counts) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!counts.requestScoped) {
+                return null;
+            }
+            if (counts.shapes == null) {
+                counts.shapes = new HashMap<>();
+            }
+            return counts.shapes;
+        }
+        Map<String, Integer> shapes = (Map<String, Integer>) TransactionSynchronizationManager.getResource(TRANSACTION_SHAPES_KEY);
+        if (shapes == null) {
+            shapes = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SHAPES_KEY, shapes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHAPES_KEY);
+                    //요청 범위가 없는 풀 스레드는 트랜잭션마다 새로 센다
+                    if (!COUNTS.get().requestScoped) {
+                        COUNTS.remove();
+                    }
+                }
+            });
+        }
+        return shapes;
+    }
+
+    private static final class Counts {
+        private int selects;
+        private int inserts;
+        private int updates;
+        private int deletes;
+        private int others;
+        private Map<String, Integer> shapes;
+        private boolean requestScoped;
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(NPlusOneProperties.class)
+public class SqlInspectionConfig {
+
+    @Bean
+    public QueryCountInspector queryCountInspector(NPlusOneProperties properties, MeterRegistry registry) {
+        return new QueryCountInspector(properties, registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountInspectorCustomizer(QueryCountInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public QueryCountFilter queryCountFilter() {
+        return new QueryCountFilter();
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.sql.trace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * p6spy 대신 쓰는 SQL 추적. "dataSource" 빈만 감싸므로 replica 라우팅을 쓰면 라우팅 앞단에서 한 번만 기록된다.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlTraceProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.sql.trace", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+
+    @Bean(destroyMethod = "close")
+    public SqlTracer sqlTracer(SqlTraceProperties properties, MeterRegistry registry) {
+        return new SqlTracer(properties, registry);
+    }
+
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor(ObjectProvider<SqlTracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource && !(bean instanceof TracingDataSource)) {
+                    return new TracingDataSource((DataSource) bean, tracer.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlTraceFilter sqlTraceFilter(SqlTraceProperties properties) {
+        return new SqlTraceFilter(properties.getEndpoints());
+    }
+}
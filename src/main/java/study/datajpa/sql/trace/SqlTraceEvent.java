@@ -0,0 +1,30 @@
+package study.datajpa.sql.trace;
+
+/**
+ * 기록할 statement 한 건. 파라미터는 값만 복사해 두고 문자열 변환은 기록 스레드에서 한다.
+ */
+final class SqlTraceEvent {
+
+    enum Reason {
+        SLOW, ENDPOINT, SAMPLED
+    }
+
+    final Reason reason;
+    final String sql;
+    final Object[] parameters;
+    final int batchSize;
+    final long elapsedNanos;
+    final String endpoint;
+    final String thread;
+
+    SqlTraceEvent(Reason reason, String sql, Object[] parameters, int batchSize, long elapsedNanos, String endpoint,
+                  String thread) {
+        this.reason = reason;
+        this.sql = sql;
+        this.parameters = parameters;
+        this.batchSize = batchSize;
+        this.elapsedNanos = elapsedNanos;
+        this.endpoint = endpoint;
+        this.thread = thread;
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.sql.trace;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * datajpa.sql.trace.endpoints 에 맞는 요청 안의 statement 는 모두 기록한다.
+ * 요청 스레드 기준이므로 repositoryExecutor 에서 실행된 조회는 샘플링/느린 쿼리 기준만 적용된다.
+ */
+public class SqlTraceFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final List<String> endpoints;
+
+    public SqlTraceFilter(List<String> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return endpoints.stream().noneMatch(pattern -> matcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlTracer.enterEndpoint(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlTracer.exitEndpoint();
+        }
+    }
+}
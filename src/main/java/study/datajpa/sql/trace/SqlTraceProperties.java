@@ -0,0 +1,32 @@
+package study.datajpa.sql.trace;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.sql.trace")
+public class SqlTraceProperties {
+
+    //false 면 DataSource 를 감싸지 않는다 (오버헤드 없음)
+    private boolean enabled = true;
+
+    //statement n 건 중 1 건을 기록, 0 이면 무작위 샘플링을 하지 않는다
+    private int sampleRate = 100;
+
+    //이보다 오래 걸린 statement 는 샘플링과 관계없이 기록
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    //이 경로(ant 패턴) 요청 안의 statement 는 모두 기록
+    private List<String> endpoints = new ArrayList<>();
+
+    //기록 대기 큐 크기, 넘치면 버린다 (datajpa.sql.trace.dropped)
+    private int bufferSize = 8192;
+
+    //파라미터 값을 로그에 남길 때 최대 길이
+    private int maxParameterLength = 100;
+}
@@ -0,0 +1,161 @@
+package study.datajpa.sql.trace;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행이 끝난 statement 를 기록할지 정하고, 기록할 것만 제한된 큐에 넣는다.
+ * 포맷팅과 로그 출력은 백그라운드 스레드가 하므로 요청 스레드는 샘플링 판단과 큐 offer 만 한다.
+ * 큐가 가득 차면 기다리지 않고 버린다.
+ */
+@Slf4j
+public class SqlTracer implements AutoCloseable {
+
+    private static final Logger SQL_LOG = LoggerFactory.getLogger("study.datajpa.sql.trace.SQL");
+    private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+
+    private final int sampleRate;
+    private final long slowNanos;
+    private final int maxParameterLength;
+    final BlockingQueue<SqlTraceEvent> queue;
+    private final Counter dropped;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public SqlTracer(SqlTraceProperties properties, MeterRegistry registry) {
+        this(properties, registry, true);
+    }
+
+    //테스트에서는 기록 스레드 없이 큐에 쌓인 이벤트를 확인한다
+    SqlTracer(SqlTraceProperties properties, MeterRegistry registry, boolean startWriter) {
+        this.sampleRate = properties.getSampleRate();
+        this.slowNanos = properties.getSlowThreshold().toNanos();
+        this.maxParameterLength = properties.getMaxParameterLength();
+        this.queue = new ArrayBlockingQueue<>(properties.getBufferSize());
+        this.dropped = Counter.builder("datajpa.sql.trace.dropped")
+                .description("SQL trace events dropped because the buffer was full")
+                .register(registry);
+        if (startWriter) {
+            this.writer = new Thread(this::drain, "sql-trace-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    static void enterEndpoint(String endpoint) {
+        ENDPOINT.set(endpoint);
+    }
+
+    static void exitEndpoint() {
+        ENDPOINT.remove();
+    }
+
+    /**
+     * @param parameters 기록하기로 했을 때만 복사한다
+     */
+    void executed(String sql, Object[] parameters, int parameterCount, int batchSize, long elapsedNanos) {
+        SqlTraceEvent.Reason reason = reason(elapsedNanos);
+        if (reason == null) {
+            return;
+        }
+        Object[] copy = new Object[parameterCount];
+        System.arraycopy(parameters, 0, copy, 0, parameterCount);
+        SqlTraceEvent event = new SqlTraceEvent(reason, sql, copy, batchSize, elapsedNanos, ENDPOINT.get(),
+                Thread.currentThread().getName());
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private SqlTraceEvent.Reason reason(long elapsedNanos) {
+        if (elapsedNanos >= slowNanos) {
+            return SqlTraceEvent.Reason.SLOW;
+        }
+        if (ENDPOINT.get() != null) {
+            return SqlTraceEvent.Reason.ENDPOINT;
+        }
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            return SqlTraceEvent.Reason.SAMPLED;
+        }
+        return null;
+    }
+
+    private void drain() {
+        List<SqlTraceEvent> batch = new ArrayList<>(256);
+        while (running || !queue.isEmpty()) {
+            try {
+                SqlTraceEvent first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                for (SqlTraceEvent event : batch) {
+                    write(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("failed to write SQL trace", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(SqlTraceEvent event) {
+        if (!SQL_LOG.isInfoEnabled()) {
+            return;
+        }
+        SQL_LOG.info("{} {}ms{} [{}{}] {} {}", event.reason, TimeUnit.NANOSECONDS.toMillis(event.elapsedNanos),
+                event.batchSize > 0 ? " batch=" + event.batchSize : "",
+                event.thread, event.endpoint != null ? " " + event.endpoint : "",
+                event.sql, formatParameters(event.parameters));
+    }
+
+    String formatParameters(Object[] parameters) {
+        if (parameters.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("| ");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object value = parameters[i];
+            if (value == null) {
+                sb.append("null");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                String text = String.valueOf(value);
+                if (text.length() > maxParameterLength) {
+                    text = text.substring(0, maxParameterLength) + "...";
+                }
+                sb.append('\'').append(text.replace("'", "''")).append('\'');
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
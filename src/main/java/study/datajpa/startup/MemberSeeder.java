@@ -0,0 +1,73 @@
+package study.datajpa.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 예제 회원 "member0" ~ 을 적재한다. 컨텍스트 refresh 를 막지 않도록 트래픽을 받기 시작한 뒤(readiness) 실행하고,
+ * 이미 있는 회원은 건너뛰므로 ddl-auto 가 create 가 아니어도 여러 번 실행해도 된다.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(SeedProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.seed", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MemberSeeder {
+
+    private final MemberRepository memberRepository;
+    private final SeedProperties properties;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    public MemberSeeder(MemberRepository memberRepository, SeedProperties properties) {
+        this.memberRepository = memberRepository;
+        this.properties = properties;
+    }
+
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || !started.compareAndSet(false, true)) {
+            return;
+        }
+        if (properties.isAsync()) {
+            new SimpleAsyncTaskExecutor("member-seeder-").execute(this::seed);
+        } else {
+            seed();
+        }
+    }
+
+    int seed() {
+        long start = System.nanoTime();
+        List<String> usernames = IntStream.range(0, properties.getMembers())
+                .mapToObj(i -> "member" + i)
+                .collect(Collectors.toList());
+        Set<String> existing = memberRepository.findByNames(usernames).stream()
+                .map(Member::getUsername)
+                .collect(Collectors.toSet());
+
+        List<Member> missing = new ArrayList<>();
+        for (int i = 0; i < usernames.size(); i++) {
+            if (!existing.contains(usernames.get(i))) {
+                missing.add(new Member(usernames.get(i), i));
+            }
+        }
+        int saved = missing.isEmpty() ? 0 : memberRepository.saveAllBatched(missing);
+        log.info("seeded {} members ({} already present) in {}ms", saved, existing.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return saved;
+    }
+}
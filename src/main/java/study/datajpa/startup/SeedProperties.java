@@ -0,0 +1,18 @@
+package study.datajpa.startup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.seed")
+public class SeedProperties {
+
+    private boolean enabled = true;
+
+    //true 면 별도 스레드에서 적재한다, false 면 readiness 이벤트를 받은 스레드에서 적재
+    private boolean async = false;
+
+    //"member{i}" (나이 i) 회원 수
+    private int members = 100;
+}
@@ -0,0 +1,52 @@
+package study.datajpa.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * 준비 완료 시점에 JVM 시작부터 걸린 시간과 가장 오래 걸린 빈 생성 단계를 남긴다.
+ * 단계별 기록은 main 에서 BufferingApplicationStartup 을 설정했을 때만 있다 (/actuator/startup 에서도 본다).
+ */
+@Slf4j
+@Component
+public class StartupReport {
+
+    private static final int TOP = 10;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup)) {
+            log.info("application ready in {}ms (JVM uptime)", uptime);
+            return;
+        }
+
+        StartupTimeline timeline = ((BufferingApplicationStartup) event.getApplicationContext().getApplicationStartup())
+                .getBufferedTimeline();
+        String slowest = timeline.getEvents().stream()
+                .filter(e -> e.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(TOP)
+                .map(e -> String.format("%n  %6dms %s", e.getDuration().toMillis(), beanName(e.getStartupStep())))
+                .collect(Collectors.joining());
+        log.info("application ready in {}ms (JVM uptime), slowest bean instantiations:{}", uptime, slowest);
+    }
+
+    private static String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> tag.getKey().equals("beanName"))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("?");
+    }
+}
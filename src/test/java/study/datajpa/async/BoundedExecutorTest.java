@@ -0,0 +1,47 @@
+package study.datajpa.async;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedExecutorTest {
+
+    @Test
+    public void rejectWhenSaturated() throws Exception {
+        // given
+        BoundedExecutor executor = new BoundedExecutor(Executors.newCachedThreadPool(), 2, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Runnable task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        };
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            executor.execute(task);
+        }
+
+        // then
+        assertThatThrownBy(() -> executor.execute(task)).isInstanceOf(TaskRejectedException.class);
+        assertThat(executor.inFlight()).isEqualTo(3);
+
+        release.countDown();
+        executor.close();
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        Thread.sleep(100);
+        assertThat(executor.inFlight()).isEqualTo(0);
+    }
+}
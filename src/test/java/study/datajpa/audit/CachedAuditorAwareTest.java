@@ -0,0 +1,51 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedAuditorAwareTest {
+
+    private final CachedAuditorAware auditorAware = new CachedAuditorAware();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void sameAuditorWithinRequest() throws Exception {
+        // given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String first = auditorAware.getCurrentAuditor().get();
+
+        // when
+        String second = auditorAware.getCurrentAuditor().get();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String otherRequest = auditorAware.getCurrentAuditor().get();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(otherRequest).isNotEqualTo(first);
+    }
+
+    @Test
+    public void perThreadAuditorOutsideRequest() throws Exception {
+        // when
+        String first = auditorAware.getCurrentAuditor().get();
+        String other = CompletableFuture.supplyAsync(() -> auditorAware.getCurrentAuditor().get()).get();
+
+        // then
+        assertThat(auditorAware.getCurrentAuditor().get()).isSameAs(first);
+        assertThat(other).isNotEqualTo(first);
+        assertThat(UUID.fromString(first).version()).isEqualTo(4);
+        assertThat(UUID.fromString(first).variant()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolPropertiesTest {
+
+    @Test
+    public void poolSizeFromCores() {
+        // given
+        ConnectionPoolProperties properties = new ConnectionPoolProperties();
+
+        // then
+        assertThat(properties.maximumPoolSize(4)).isEqualTo(9);
+    }
+
+    @Test
+    public void poolSizeCappedByExpectedConcurrency() {
+        // given
+        ConnectionPoolProperties properties = new ConnectionPoolProperties();
+        properties.setExpectedConcurrency(5);
+
+        // then
+        assertThat(properties.maximumPoolSize(4)).isEqualTo(5);
+        assertThat(properties.maximumPoolSize(1)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HikariPoolTunerTest {
+
+    @Test
+    public void keepCamelCasePoolSize() {
+        // given
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximumPoolSize", "7");
+
+        // then
+        assertThat(tunedPoolSize(environment)).isEqualTo(7);
+    }
+
+    @Test
+    public void keepEnvironmentVariablePoolSize() {
+        // given
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().replace(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+                new SystemEnvironmentPropertySource(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME,
+                        Map.of("SPRING_DATASOURCE_HIKARI_MAXIMUMPOOLSIZE", "7")));
+
+        // then
+        assertThat(tunedPoolSize(environment)).isEqualTo(7);
+    }
+
+    @Test
+    public void autoSizeWhenNotSet() {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        assertThat(tunedPoolSize(new MockEnvironment())).isEqualTo(new ConnectionPoolProperties().maximumPoolSize(cores));
+    }
+
+    //바인딩된 값(7)이 이미 들어 있는 데이터소스에 튜너를 적용한다
+    private static int tunedPoolSize(Environment environment) {
+        HikariPoolTuner tuner = new HikariPoolTuner();
+        tuner.setEnvironment(environment);
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(7);
+            tuner.postProcessBeforeInitialization(dataSource, "dataSource");
+            return dataSource.getMaximumPoolSize();
+        }
+    }
+}
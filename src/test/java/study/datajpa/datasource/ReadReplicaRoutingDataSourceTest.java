@@ -0,0 +1,146 @@
+package study.datajpa.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = h2("primary");
+    private final DataSource replica1 = h2("replica1");
+    private final DataSource replica2 = h2("replica2");
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void writesGoToPrimary() throws Exception {
+        // given
+        ReadReplicaRoutingDataSource routing = routing(List.of(replica(replica1, "replica1")));
+
+        // when
+        try (Connection connection = routing.getConnection()) {
+            // then
+            assertThat(url(connection)).contains("primary");
+        }
+    }
+
+    @Test
+    public void readOnlyGoesToLeastConnectedReplica() throws Exception {
+        // given
+        ReadReplicaRoutingDataSource routing = routing(List.of(replica(replica1, "replica1"), replica(replica2, "replica2")));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        try (Connection first = routing.getConnection();
+             Connection second = routing.getConnection()) {
+
+            // then
+            assertThat(url(first)).contains("replica");
+            assertThat(url(second)).contains("replica");
+            assertThat(url(second)).isNotEqualTo(url(first));
+        }
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenReplicaFails() throws Exception {
+        // given
+        DataSource broken = new DriverManagerDataSource("jdbc:h2:mem:broken;IFEXISTS=TRUE", "sa", "");
+        ReadReplicaRoutingDataSource.Replica replica = replica(broken, "broken");
+        ReadReplicaRoutingDataSource routing = routing(List.of(replica));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        try (Connection connection = routing.getConnection()) {
+            // then
+            assertThat(url(connection)).contains("primary");
+        }
+        assertThat(replica.getActiveConnections()).isEqualTo(0);
+        assertThat(routing.choose(System.nanoTime())).isNull();
+    }
+
+    @Test
+    public void trackedConnectionEqualsItself() throws Exception {
+        // given
+        ReadReplicaRoutingDataSource.Replica replica = replica(replica1, "replica1");
+        ReadReplicaRoutingDataSource routing = routing(List.of(replica));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        try (Connection connection = routing.getConnection()) {
+            // then
+            assertThat(connection).isEqualTo(connection);
+            assertThat(connection.hashCode()).isEqualTo(connection.hashCode());
+            assertThat(replica.getActiveConnections()).isEqualTo(1);
+        }
+        assertThat(replica.getActiveConnections()).isEqualTo(0);
+    }
+
+    @Test
+    public void failedCloseKeepsConnectionActive() throws Exception {
+        // given: 첫 close 만 실패하는 커넥션
+        DataSource failingClose = new DelegatingDataSource(replica1) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection target = super.getConnection();
+                boolean[] failed = {false};
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        (proxy, method, args) -> {
+                            if ("close".equals(method.getName()) && !failed[0]) {
+                                failed[0] = true;
+                                throw new SQLException("close failed");
+                            }
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                        });
+            }
+        };
+        ReadReplicaRoutingDataSource.Replica replica = replica(failingClose, "failingClose");
+        ReadReplicaRoutingDataSource routing = routing(List.of(replica));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection connection = routing.getConnection();
+
+        // when
+        assertThatThrownBy(connection::close).isInstanceOf(SQLException.class);
+
+        // then
+        assertThat(replica.getActiveConnections()).isEqualTo(1);
+        connection.close();
+        assertThat(replica.getActiveConnections()).isEqualTo(0);
+    }
+
+    private ReadReplicaRoutingDataSource routing(List<ReadReplicaRoutingDataSource.Replica> replicas) {
+        return new ReadReplicaRoutingDataSource(primary, replicas,
+                ReplicaDataSourceProperties.Balancing.LEAST_CONNECTIONS, TimeUnit.SECONDS.toNanos(30));
+    }
+
+    private static ReadReplicaRoutingDataSource.Replica replica(DataSource dataSource, String name) {
+        return new ReadReplicaRoutingDataSource.Replica(name, dataSource, 1);
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static String url(Connection connection) throws SQLException {
+        return connection.getMetaData().getURL();
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.repository.MemberJpaRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class RepositoryMetricsTest {
+
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MeterRegistry registry;
+
+    @Test
+    public void recordRepositoryAndStatementTimers() {
+        // when
+        memberJpaRepository.count();
+
+        // then
+        assertThat(registry.get(RepositoryMetricsAspect.METRIC_NAME)
+                .tag("repository", "MemberJpaRepository")
+                .tag("method", "count")
+                .timer().count()).isGreaterThan(0);
+        assertThat(registry.get("hibernate.session.statement.execute").timer().count()).isGreaterThan(0);
+        assertThat(registry.get("hibernate.session.connection.acquire").timer().count()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,100 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "datajpa.counter.flush-interval=1h")
+public class MemberAgeCounterTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberAgeAccumulator memberAgeAccumulator;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void incrementAgeConcurrently() throws Exception {
+        // given
+        Long id = memberRepository.save(new Member("counter1", 0)).getId();
+        memberRepository.findById(id); //2차 캐시에 옛 age 를 올려 둔다
+
+        // when
+        runConcurrently(8, 100, () -> memberRepository.incrementAge(id, 1));
+
+        // then
+        assertThat(memberRepository.findById(id).get().getAge()).isEqualTo(800);
+        assertThat(memberRepository.incrementAndGetAge(id, 5)).isEqualTo(OptionalInt.of(805));
+        assertThat(memberRepository.incrementAndGetAge(-1L, 5)).isEmpty();
+    }
+
+    @Test
+    public void accumulateAndFlush() throws Exception {
+        // given
+        Long hot = memberRepository.save(new Member("counter2", 10)).getId();
+        Long cold = memberRepository.save(new Member("counter3", 10)).getId();
+
+        // when
+        runConcurrently(8, 1000, () -> memberAgeAccumulator.add(hot, 1));
+        memberAgeAccumulator.add(cold, -3);
+        assertThat(memberAgeAccumulator.pending(hot)).isEqualTo(8000);
+        int rows = memberAgeAccumulator.flush();
+
+        // then
+        assertThat(rows).isEqualTo(2);
+        assertThat(memberAgeAccumulator.pending(hot)).isZero();
+        assertThat(memberRepository.findById(hot).get().getAge()).isEqualTo(8010);
+        assertThat(memberRepository.findById(cold).get().getAge()).isEqualTo(7);
+        assertThat(memberAgeAccumulator.flush()).isZero(); //증가가 없으면 update 도 없다
+    }
+
+    @Test
+    public void managedMemberIsRefreshed() {
+        // given
+        Long id = memberRepository.save(new Member("counter4", 20)).getId();
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Member member = memberRepository.findById(id).get();
+            member.setUsername("counter4-renamed");
+            memberRepository.incrementAge(id, 3);
+
+            // then
+            assertThat(em.contains(member)).isTrue();
+            assertThat(member.getAge()).isEqualTo(23);
+            member.setAge(member.getAge() + 1); //refresh 뒤에도 변경 감지가 동작한다
+        });
+        Member reloaded = memberRepository.findById(id).get();
+        assertThat(reloaded.getUsername()).isEqualTo("counter4-renamed");
+        assertThat(reloaded.getAge()).isEqualTo(24);
+    }
+
+    private static void runConcurrently(int threads, int times, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < times; j++) {
+                        task.run();
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
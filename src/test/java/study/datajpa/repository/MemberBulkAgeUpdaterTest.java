@@ -0,0 +1,73 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "datajpa.bulk-update.chunk-size=2")
+public class MemberBulkAgeUpdaterTest {
+
+    @Autowired MemberBulkAgeUpdater memberBulkAgeUpdater;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void bulkAgePlusInChunks() {
+        // given
+        List<Member> members = memberRepository.saveAll(Arrays.asList(
+                new Member("chunk1", 2001),
+                new Member("chunk2", 2002),
+                new Member("chunk3", 2003),
+                new Member("chunk4", 2004),
+                new Member("chunk5", 2005)));
+        List<BulkUpdateProgress> reported = new ArrayList<>();
+        long beforeFirst = members.get(0).getId() - 1;
+
+        // when
+        BulkUpdateProgress result = memberBulkAgeUpdater.bulkAgePlus(2002, beforeFirst, reported::add);
+
+        // then
+        assertThat(result.getUpdatedRows()).isEqualTo(4);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(reported).extracting("updatedRows").containsExactly(2L, 4L);
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getAge()).isEqualTo(2001);
+        assertThat(memberRepository.findById(members.get(4).getId()).get().getAge()).isEqualTo(2006);
+    }
+
+    @Test
+    public void resumeAfterLastId() {
+        // given
+        List<Member> members = memberRepository.saveAll(Arrays.asList(
+                new Member("resume1", 3001),
+                new Member("resume2", 3001),
+                new Member("resume3", 3001)));
+
+        // when
+        BulkUpdateProgress result = memberBulkAgeUpdater.bulkAgePlus(3001, members.get(0).getId(), progress -> {
+        });
+
+        // then
+        assertThat(result.getUpdatedRows()).isEqualTo(2);
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getAge()).isEqualTo(3001);
+        assertThat(memberRepository.findById(members.get(2).getId()).get().getAge()).isEqualTo(3002);
+    }
+
+    @Test
+    public void rejectInsideTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> memberBulkAgeUpdater.bulkAgePlus(4001)))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+}
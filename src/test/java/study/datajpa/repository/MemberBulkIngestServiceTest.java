@@ -0,0 +1,34 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import study.datajpa.dto.MemberImportRecord;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class MemberBulkIngestServiceTest {
+
+    @Autowired MemberBulkIngestService memberBulkIngestService;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void ingest() {
+        // given
+        Stream<MemberImportRecord> records = IntStream.range(0, 1000)
+                .mapToObj(i -> new MemberImportRecord("ingest" + i, 1005, "ingestTeam" + (i % 3)));
+
+        // when
+        IngestResult result = memberBulkIngestService.ingest(records);
+
+        // then
+        assertThat(result.getRows()).isEqualTo(1000);
+        assertThat(result.getTeamsCreated()).isEqualTo(3);
+        assertThat(memberRepository.findByAge(1005, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(1000);
+    }
+}
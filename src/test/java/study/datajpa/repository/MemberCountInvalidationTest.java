@@ -0,0 +1,78 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountStrategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "datajpa.count.cache-ttl=1m")
+public class MemberCountInvalidationTest {
+
+    private static final String MEMBER = MemberRepositoryWriteAspect.MEMBER_TABLE;
+
+    @Autowired CountStrategy countStrategy;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void insertInvalidatesAfterCommit() {
+        // given
+        countStrategy.invalidate(MEMBER);
+        assertThat(countStrategy.count(MEMBER, null, () -> 1L)).isEqualTo(1);
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.save(new Member("countInsert", 5001));
+            memberRepository.flush();
+            //커밋 전에 비우면 다른 요청이 옛 건수를 다시 캐시할 수 있다
+            assertThat(countStrategy.count(MEMBER, null, () -> 2L)).isEqualTo(1);
+        });
+
+        // then
+        assertThat(countStrategy.count(MEMBER, null, () -> 2L)).isEqualTo(2);
+    }
+
+    @Test
+    public void updateKeepsCountsUnlessAgeChanges() {
+        // given
+        Member member = memberRepository.save(new Member("countUpdate", 5002));
+        countStrategy.invalidate(MEMBER);
+        countStrategy.count(MEMBER, null, () -> 1L);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // when
+        tx.executeWithoutResult(status -> memberRepository.findById(member.getId()).get().setUsername("countUpdate2"));
+
+        // then
+        assertThat(countStrategy.count(MEMBER, null, () -> 2L)).isEqualTo(1);
+
+        // when
+        tx.executeWithoutResult(status -> memberRepository.findById(member.getId()).get().setAge(5003));
+
+        // then
+        assertThat(countStrategy.count(MEMBER, null, () -> 2L)).isEqualTo(2); //age 조건 count 가 바뀐다
+    }
+
+    @Test
+    public void rolledBackDeleteKeepsCounts() {
+        // given
+        Member member = memberRepository.save(new Member("countRollback", 5004));
+        countStrategy.invalidate(MEMBER);
+        countStrategy.count(MEMBER, null, () -> 1L);
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.delete(memberRepository.findById(member.getId()).get());
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        // then
+        assertThat(countStrategy.count(MEMBER, null, () -> 2L)).isEqualTo(1);
+    }
+}
@@ -1,5 +1,7 @@
 package study.datajpa.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -108,6 +110,22 @@ public class MemberJpaRepositoryTest {
 
     }
 
+    @Test
+    public void keysetPaging() {
+        memberJpaRepository.save(new Member("memberA", 1002));
+        memberJpaRepository.save(new Member("memberB", 1002));
+        memberJpaRepository.save(new Member("memberC", 1002));
+        memberJpaRepository.save(new Member("memberD", 1002));
+        memberJpaRepository.save(new Member("memberE", 1002));
+
+        List<Member> first = memberJpaRepository.findByPageAfter(1002, null, 3);
+        MemberCursor cursor = MemberCursor.of(first.get(first.size() - 1));
+        List<Member> second = memberJpaRepository.findByPageAfter(1002, cursor, 3);
+
+        assertThat(first).extracting("username").containsExactly("memberA", "memberB", "memberC");
+        assertThat(second).extracting("username").containsExactly("memberD", "memberE");
+    }
+
     @Test
     public void bulkAgePlusTest() {
         // given
@@ -141,4 +159,21 @@ public class MemberJpaRepositoryTest {
         System.out.println("member.getUpdatedDate() = " + member.getLastModifiedDate());
 
     }
+
+    @Test
+    public void namedQueriesHitPlanCache() {
+        //given
+        memberJpaRepository.save(new Member("planCache", 2101));
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        //when
+        memberJpaRepository.findByPage(2101, 0, 3);
+        memberJpaRepository.findByPageAfter(2101, null, 3);
+        memberJpaRepository.findUsernameAndGreaterThen("planCache", 2100);
+        memberJpaRepository.count();
+
+        //then 시작할 때 컴파일된 플랜을 쓰므로 HQL 을 다시 파싱하지 않는다
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+    }
 }
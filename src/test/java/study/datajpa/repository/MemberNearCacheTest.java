@@ -0,0 +1,133 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.async.AsyncRepositoryConfig;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class MemberNearCacheTest {
+
+    @Autowired MemberNearCache memberNearCache;
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManagerFactory emf;
+    @Autowired @Qualifier(AsyncRepositoryConfig.REPOSITORY_EXECUTOR) TaskExecutor repositoryExecutor;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("nearCache", 4001));
+        //전역 SQL 통계는 백그라운드 작업(seed, accumulator flush 등)과 섞이므로 로더가 여는 EntityManager 수를 센다
+        AtomicInteger loads = new AtomicInteger();
+        EntityManagerFactory countingEmf = (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("createEntityManager")) {
+                        loads.incrementAndGet();
+                    }
+                    try {
+                        return method.invoke(emf, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        MemberNearCache nearCache = new MemberNearCache(countingEmf, repositoryExecutor, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(1));
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Optional<Member>>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return nearCache.getById(member.getId());
+            }, executor));
+        }
+        start.countDown();
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+        executor.shutdown();
+
+        // then
+        assertThat(loads.get()).isEqualTo(1);
+        for (CompletableFuture<Optional<Member>> result : results) {
+            assertThat(result.join()).get().extracting(Member::getUsername).isEqualTo("nearCache");
+        }
+    }
+
+    @Test
+    public void saveInvalidates() {
+        // given
+        Member member = memberRepository.save(new Member("nearCacheBefore", 4002));
+        assertThat(memberNearCache.getById(member.getId())).isPresent();
+
+        // when
+        member.setUsername("nearCacheAfter");
+        memberRepository.save(member);
+
+        // then
+        assertThat(memberNearCache.getById(member.getId()).get().getUsername()).isEqualTo("nearCacheAfter");
+    }
+
+    @Test
+    public void dirtyCheckingUpdateInvalidatesAfterCommit() {
+        // given
+        Member member = memberRepository.save(new Member("nearCacheDirty", 4003));
+        assertThat(memberNearCache.getById(member.getId())).isPresent();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // when
+        tx.executeWithoutResult(status -> {
+            memberRepository.findById(member.getId()).get().setUsername("nearCacheDirtyAfter");
+            memberRepository.flush();
+            //커밋 전에는 그대로 둔다
+            assertThat(memberNearCache.getById(member.getId()).get().getUsername()).isEqualTo("nearCacheDirty");
+        });
+
+        // then
+        assertThat(memberNearCache.getById(member.getId()).get().getUsername()).isEqualTo("nearCacheDirtyAfter");
+    }
+
+    @Test
+    public void rollbackKeepsCachedMember() {
+        // given
+        Member member = memberRepository.save(new Member("nearCacheRollback", 4004));
+        Member cached = memberNearCache.getById(member.getId()).get();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // when
+        tx.executeWithoutResult(status -> {
+            memberRepository.delete(memberRepository.findById(member.getId()).get());
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        // then
+        assertThat(memberNearCache.getById(member.getId()).get()).isSameAs(cached);
+    }
+}
@@ -1,5 +1,6 @@
 package study.datajpa.repository;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,12 +11,17 @@ import study.datajpa.dto.MemberDto;
 import study.datajpa.dto.UsernameOnlyDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.sql.QueryCounter;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpa.support.QueryCountAssertions.assertSelectCount;
 
 @SpringBootTest
 @Transactional
@@ -142,6 +148,27 @@ public class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void findMemberDtoPage() {
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("dtoPageA", 10, teamA));
+        memberRepository.save(new Member("dtoPageB", 20));
+        em.flush();
+        em.clear();
+
+        // when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(
+                PageRequest.of(0, 1000, Sort.by(Sort.Direction.ASC, "username")));
+
+        // then
+        assertThat(page.getContent())
+                .filteredOn(dto -> dto.getUsername().startsWith("dtoPage"))
+                .extracting("teamName")
+                .containsExactly("teamA", null);
+    }
+
     @Test
     public void testFindNames() {
         Member memberA = new Member("memberA", 10);
@@ -185,6 +212,71 @@ public class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void keysetPaging() {
+        // given
+        memberRepository.save(new Member("memberA", 1001));
+        memberRepository.save(new Member("memberB", 1001));
+        memberRepository.save(new Member("memberC", 1001));
+        memberRepository.save(new Member("memberD", 1001));
+        memberRepository.save(new Member("memberE", 1001));
+
+        // when
+        KeysetSlice<Member> first = memberRepository.findByAgeAfter(1001, null, 3);
+        KeysetSlice<Member> second = memberRepository.findByAgeAfter(1001, MemberCursor.decode(first.getNextCursor()), 3);
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("memberA", "memberB", "memberC");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("memberD", "memberE");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void saveAllBatched() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, 1003));
+        }
+
+        // when
+        int savedCount = memberRepository.saveAllBatched(members);
+
+        // then
+        assertThat(savedCount).isEqualTo(250);
+        assertThat(members).allMatch(m -> m.getId() != null);
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(memberRepository.findByAge(1003, PageRequest.of(0, 10)).getTotalElements()).isEqualTo(250);
+    }
+
+    @Test
+    public void streamAll() {
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("streamA", 1004, teamA));
+        memberRepository.save(new Member("streamB", 1004, teamA));
+        memberRepository.save(new Member("streamC", 1004));
+        em.flush();
+        em.clear();
+
+        // when
+        List<Member> members;
+        try (Stream<Member> stream = memberRepository.streamAll(2)) {
+            members = stream.filter(m -> m.getAge() == 1004).collect(Collectors.toList());
+        }
+        List<MemberDto> dtos;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(2)) {
+            dtos = stream.filter(d -> d.getUsername().startsWith("stream")).collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(members).hasSize(3);
+        assertThat(members).noneMatch(em::contains);
+        assertThat(dtos).extracting("teamName").containsExactlyInAnyOrder("teamA", "teamA", null);
+    }
+
     @Test
     public void bulkAgePlusTest() {
         // given
@@ -227,6 +319,50 @@ public class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void findMemberEntityGraphSelectCount() {
+        //given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+        QueryCounter.reset();
+
+        //when
+        List<Member> members = memberRepository.findMemberEntityGraph();
+        for (Member member : members) {
+            if (member.getTeam() != null) {
+                member.getTeam().getName();
+            }
+        }
+
+        //then
+        assertSelectCount(1);
+    }
+
+    @Test
+    public void findAllByIdBatched() {
+        //given
+        Member member1 = memberRepository.save(new Member("multiGet1", 10));
+        Member member2 = memberRepository.save(new Member("multiGet2", 20));
+        Member member3 = memberRepository.save(new Member("multiGet3", 30));
+        em.flush();
+        em.clear();
+        Member managed = memberRepository.findById(member2.getId()).get();
+        QueryCounter.reset();
+
+        //when
+        List<Member> result = memberRepository.findAllByIdBatched(
+                Arrays.asList(member3.getId(), member1.getId(), -1L, member2.getId()));
+
+        //then
+        assertThat(result).extracting("username").containsExactly("multiGet3", "multiGet1", "multiGet2");
+        assertThat(result.get(2)).isSameAs(managed);
+        assertSelectCount(1);
+    }
+
     @Test
     public void queryHintTest() {
         //given
@@ -240,6 +376,52 @@ public class MemberRepositoryTest {
         em.flush(); //Update Query 실행X
     }
 
+    @Test
+    public void readOnlyQueryTest() {
+        //given
+        Team team = teamRepository.save(new Team("readOnlyTeam"));
+        memberRepository.save(new Member("readOnlyMember", 10, team));
+        em.flush();
+        em.clear();
+
+        //when
+        for (Member member : memberRepository.findReadOnlyAllBy()) {
+            member.setAge(member.getAge() + 10);
+        }
+        em.flush(); //바깥 쓰기 트랜잭션이어도 Update Query 실행X
+        em.clear();
+
+        //then
+        Session session = em.unwrap(Session.class);
+        Member reloaded = memberRepository.findReadOnlyAllBy().stream()
+                .filter(m -> m.getUsername().equals("readOnlyMember"))
+                .findFirst().get();
+        assertThat(reloaded.getAge()).isEqualTo(10);
+        assertThat(session.isReadOnly(reloaded)).isTrue();
+        assertThat(session.isReadOnly(reloaded.getTeam())).isTrue(); //엔티티 그래프로 함께 로딩된 팀도 read-only
+    }
+
+    @Test
+    public void generalFinderStaysWritable() {
+        //given
+        memberRepository.save(new Member("writableMember", 10));
+        em.flush();
+        em.clear();
+
+        //when
+        Session session = em.unwrap(Session.class);
+        Member member = memberRepository.findByUsername("writableMember").get(0);
+        assertThat(session.isReadOnly(member)).isFalse();
+        member.setAge(20);
+        em.flush(); //변경 감지로 Update Query 실행
+        em.clear();
+
+        //then
+        assertThat(memberRepository.findByUsername("writableMember")).extracting("age").containsExactly(20);
+        assertThat(memberRepository.findByAge(20, PageRequest.of(0, 10)).getContent())
+                .noneMatch(session::isReadOnly);
+    }
+
     @Test
     public void customRepositoryTest() {
         // given
@@ -315,6 +497,26 @@ public class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void usernameOnlyQueryMatchesSpelProjection() {
+        //given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("usernameOnly1", 7, teamA));
+        em.persist(new Member("usernameOnly2", 8));
+        em.flush();
+        em.clear();
+
+        //when
+        List<UsernameOnly> spel = memberRepository.findProjectionsByUsername("usernameOnly1", UsernameOnly.class);
+        List<UsernameOnlyDto> query = memberRepository.findUsernameOnlyByUsername("usernameOnly1");
+        List<UsernameOnlyDto> noTeam = memberRepository.findUsernameOnlyByUsername("usernameOnly2");
+
+        //then
+        assertThat(query).extracting("username").containsExactly(spel.get(0).getUsername());
+        assertThat(noTeam).extracting("username").containsExactly("usernameOnly2 8 "); //팀 이름 자리는 빈 문자열
+    }
+
     @Test
     public void nativeQueryTest() {
         //given
@@ -336,4 +538,29 @@ public class MemberRepositoryTest {
             System.out.println("memberProjection.getTeamName() = " + memberProjection.getTeamName());
         }
     }
+
+    @Test
+    public void nativeProjectionJoinAndSort() {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("native1", 0, teamA));
+        em.persist(new Member("native2", 0, teamB));
+        em.flush();
+        em.clear();
+
+        // when
+        Page<MemberProjection> page = memberRepository.findByNativeProjection(
+                PageRequest.of(0, 1000, Sort.by(Sort.Direction.DESC, "username")));
+
+        // then
+        List<MemberProjection> natives = page.getContent().stream()
+                .filter(p -> p.getUsername().startsWith("native"))
+                .collect(Collectors.toList());
+        assertThat(natives).extracting("username").containsExactly("native2", "native1");
+        assertThat(natives).extracting("teamName").containsExactly("teamB", "teamA");
+        assertThat(page.getTotalElements()).isEqualTo(memberRepository.count());
+    }
 }
@@ -0,0 +1,69 @@
+package study.datajpa.repository;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Rollback(false)
+public class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManager em;
+
+    @Test
+    public void changeTeamDoesNotLoadMembers() {
+        //given
+        Team team = teamRepository.save(new Team("extraLazy"));
+        for (int i = 0; i < 50; i++) {
+            memberRepository.save(new Member("extraLazy" + i, 10, team));
+        }
+        Member member = memberRepository.save(new Member("extraLazyNew", 10));
+        em.flush();
+        em.clear();
+
+        //when
+        Team findTeam = teamRepository.findById(team.getId()).get();
+        Member findMember = memberRepository.findById(member.getId()).get();
+        findMember.changeTeam(findTeam);
+
+        //then size() 는 count 쿼리로, 컬렉션은 로딩되지 않는다
+        assertThat(findTeam.getMembers().size()).isEqualTo(51);
+        assertThat(findTeam.getMembers().contains(findMember)).isTrue();
+        assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+    }
+
+    @Test
+    public void findMembersOfTeam() {
+        //given
+        Team team = teamRepository.save(new Team("pagedTeam"));
+        for (int i = 0; i < 25; i++) {
+            memberRepository.save(new Member("pagedTeam" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        KeysetSlice<Member> first = teamRepository.findMembersOfTeam(team.getId(), null, 10);
+        KeysetSlice<Member> second = teamRepository.findMembersOfTeam(team.getId(), MemberCursor.decode(first.getNextCursor()), 10);
+        KeysetSlice<Member> last = teamRepository.findMembersOfTeam(team.getId(), MemberCursor.decode(second.getNextCursor()), 10);
+
+        //then
+        assertThat(first.getContent()).hasSize(10);
+        assertThat(second.getContent()).hasSize(10);
+        assertThat(last.getContent()).hasSize(5);
+        assertThat(last.hasNext()).isFalse();
+        assertThat(second.getContent().get(0).getId()).isGreaterThan(first.getContent().get(9).getId());
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.repository.count;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachingCountStrategyTest {
+
+    private final CachingCountStrategy strategy = new CachingCountStrategy(new ExactCountStrategy(), Duration.ofMinutes(1));
+
+    @Test
+    public void cachePerPredicate() {
+        AtomicInteger queries = new AtomicInteger();
+
+        long first = strategy.count("member", "age=10", () -> queries.incrementAndGet() * 5L);
+        long second = strategy.count("member", "age=10", () -> queries.incrementAndGet() * 5L);
+        long other = strategy.count("member", "age=20", () -> queries.incrementAndGet() * 5L);
+
+        assertThat(first).isEqualTo(5);
+        assertThat(second).isEqualTo(5);
+        assertThat(other).isEqualTo(10);
+        assertThat(queries.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidateOnWrite() {
+        AtomicInteger queries = new AtomicInteger();
+        strategy.count("member", null, queries::incrementAndGet);
+        strategy.count("team", null, queries::incrementAndGet);
+
+        strategy.invalidate("member");
+
+        assertThat(strategy.count("member", null, queries::incrementAndGet)).isEqualTo(3);
+        assertThat(strategy.count("team", null, queries::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    public void expireAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        CachingCountStrategy shortTtl = new CachingCountStrategy(new ExactCountStrategy(), Duration.ofSeconds(1), now::get);
+        AtomicInteger queries = new AtomicInteger();
+
+        shortTtl.count("member", null, queries::incrementAndGet);
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        shortTtl.count("member", null, queries::incrementAndGet);
+        assertThat(queries.get()).isEqualTo(1); //만료 전에는 캐시 적중
+
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        shortTtl.count("member", null, queries::incrementAndGet);
+        assertThat(queries.get()).isEqualTo(2); //TTL 이 지나면 다시 조회
+    }
+}
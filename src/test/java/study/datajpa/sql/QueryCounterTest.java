@@ -0,0 +1,64 @@
+package study.datajpa.sql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryCounterTest {
+
+    private static final String SELECT = "select m.id from member m where m.member_id = ?";
+
+    @AfterEach
+    public void tearDown() {
+        QueryCounter.endRequest();
+    }
+
+    @Test
+    public void pooledThreadStartsOverPerTransaction() {
+        //같은 풀 스레드에서 트랜잭션 두 개가 같은 select 를 한 번씩 실행
+        for (int i = 0; i < 2; i++) {
+            inTransaction(() -> assertThat(QueryCounter.record(SELECT)).isEqualTo(1));
+        }
+
+        assertThat(QueryCounter.selectCount()).isZero();
+    }
+
+    @Test
+    public void repeatedSelectsInOneTransaction() {
+        inTransaction(() -> {
+            QueryCounter.record(SELECT);
+            QueryCounter.record(SELECT);
+            assertThat(QueryCounter.record(SELECT)).isEqualTo(3);
+            assertThat(QueryCounter.selectCount()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    public void outsideTransactionCountsOnlyWithinRequest() {
+        QueryCounter.record(SELECT);
+        assertThat(QueryCounter.record(SELECT)).isZero();
+
+        QueryCounter.beginRequest();
+        QueryCounter.record(SELECT);
+        assertThat(QueryCounter.record(SELECT)).isEqualTo(2);
+
+        //요청 범위에서는 트랜잭션이 끝나도 요청 카운트가 남는다
+        inTransaction(() -> QueryCounter.record(SELECT));
+        assertThat(QueryCounter.selectCount()).isEqualTo(3);
+    }
+
+    private static void inTransaction(Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+        } finally {
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
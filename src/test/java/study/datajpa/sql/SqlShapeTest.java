@@ -0,0 +1,29 @@
+package study.datajpa.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlShapeTest {
+
+    @Test
+    public void normalizeLiteralsAndInLists() {
+        String a = SqlShape.normalize("select m.id from member m\n where m.team_id in (?, ?, ?) and m.age = 10");
+        String b = SqlShape.normalize("SELECT m.id FROM member m WHERE m.team_id IN (?) AND m.age = 20");
+
+        assertThat(a).isEqualTo("select m.id from member m where m.team_id in (?) and m.age = ?");
+        assertThat(b).isEqualTo(a);
+    }
+
+    @Test
+    public void normalizeStringLiterals() {
+        assertThat(SqlShape.normalize("select * from member where username = 'it''s'"))
+                .isEqualTo("select * from member where username = ?");
+    }
+
+    @Test
+    public void isSelect() {
+        assertThat(SqlShape.isSelect("  select 1")).isTrue();
+        assertThat(SqlShape.isSelect("update member set age = ?")).isFalse();
+    }
+}
@@ -0,0 +1,114 @@
+package study.datajpa.sql.trace;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTracerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(300);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        SqlTracer.exitEndpoint();
+    }
+
+    @Test
+    public void slowStatementIsAlwaysRecorded() {
+        // given
+        SqlTracer tracer = tracer(0, 8);
+
+        // when
+        tracer.executed("select 1", new Object[0], 0, 0, SLOW);
+        tracer.executed("select 2", new Object[0], 0, 0, FAST);
+
+        // then
+        assertThat(tracer.queue).hasSize(1);
+        assertThat(tracer.queue.peek().reason).isEqualTo(SqlTraceEvent.Reason.SLOW);
+    }
+
+    @Test
+    public void endpointStatementIsRecorded() {
+        // given
+        SqlTracer tracer = tracer(0, 8);
+        SqlTracer.enterEndpoint("/members");
+
+        // when
+        tracer.executed("select 1", new Object[0], 0, 0, FAST);
+
+        // then
+        SqlTraceEvent event = tracer.queue.peek();
+        assertThat(event.reason).isEqualTo(SqlTraceEvent.Reason.ENDPOINT);
+        assertThat(event.endpoint).isEqualTo("/members");
+    }
+
+    @Test
+    public void sampledOnlyWhenRateIsSet() {
+        // given
+        SqlTracer noSampling = tracer(0, 8);
+        SqlTracer everyStatement = tracer(1, 8);
+
+        // when
+        noSampling.executed("select 1", new Object[0], 0, 0, FAST);
+        everyStatement.executed("select 1", new Object[0], 0, 0, FAST);
+
+        // then
+        assertThat(noSampling.queue).isEmpty();
+        assertThat(everyStatement.queue.peek().reason).isEqualTo(SqlTraceEvent.Reason.SAMPLED);
+    }
+
+    @Test
+    public void copiesOnlyBoundParameters() {
+        // given
+        SqlTracer tracer = tracer(1, 8);
+        Object[] parameters = {1L, "a", "stale", null, null, null, null, null};
+
+        // when
+        tracer.executed("select ?, ?", parameters, 2, 0, FAST);
+        parameters[0] = 2L;
+
+        // then
+        assertThat(tracer.queue.peek().parameters).containsExactly(1L, "a");
+    }
+
+    @Test
+    public void dropWhenBufferIsFull() {
+        // given
+        SqlTracer tracer = tracer(1, 2);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            tracer.executed("select " + i, new Object[0], 0, 0, FAST);
+        }
+
+        // then
+        assertThat(tracer.queue).extracting(event -> event.sql).containsExactly("select 0", "select 1");
+        assertThat(registry.get("datajpa.sql.trace.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void formatParameters() {
+        SqlTracer tracer = tracer(0, 8);
+
+        assertThat(tracer.formatParameters(new Object[]{1, null, true, "it's", "x".repeat(120)}))
+                .isEqualTo("| 1, null, true, 'it''s', '" + "x".repeat(100) + "...'");
+        assertThat(tracer.formatParameters(new Object[0])).isEmpty();
+    }
+
+    //기록 스레드 없이 만들어 큐에 남은 이벤트로 판단 결과를 본다
+    private SqlTracer tracer(int sampleRate, int bufferSize) {
+        SqlTraceProperties properties = new SqlTraceProperties();
+        properties.setSampleRate(sampleRate);
+        properties.setSlowThreshold(Duration.ofMillis(200));
+        properties.setBufferSize(bufferSize);
+        return new SqlTracer(properties, registry, false);
+    }
+}
@@ -0,0 +1,156 @@
+package study.datajpa.sql.trace;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TracingDataSourceTest {
+
+    private final CapturingTracer tracer = new CapturingTracer();
+    private final TracingDataSource dataSource = new TracingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1", "sa", ""), tracer);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists traced");
+            statement.execute("create table traced (id int primary key)");
+        }
+        tracer.calls.clear();
+    }
+
+    @Test
+    public void captureParametersBeyondInitialCapacity() throws SQLException {
+        // given
+        String sql = "select id from traced where id in (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        // when
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 1; i <= 10; i++) {
+                statement.setInt(i, i * 10);
+            }
+            statement.setNull(10, Types.INTEGER);
+            try (ResultSet ignored = statement.executeQuery()) {
+            }
+        }
+
+        // then
+        Call call = tracer.calls.get(0);
+        assertThat(call.sql).isEqualTo(sql);
+        assertThat(call.parameters).containsExactly(10, 20, 30, 40, 50, 60, 70, 80, 90, null);
+    }
+
+    @Test
+    public void clearParametersResetsCount() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select id from traced where id = ?")) {
+            // given
+            statement.setInt(1, 1);
+            statement.clearParameters();
+
+            // when: 파라미터가 없어 실패해도 실행은 기록된다
+            assertThatThrownBy(statement::executeQuery).isInstanceOf(SQLException.class);
+        }
+
+        // then
+        assertThat(tracer.calls.get(0).parameters).isEmpty();
+    }
+
+    @Test
+    public void countBatchAndResetAfterExecute() throws SQLException {
+        // when
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into traced (id) values (?)")) {
+            for (int i = 1; i <= 3; i++) {
+                statement.setInt(1, i);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            statement.setInt(1, 4);
+            statement.addBatch();
+            statement.executeBatch();
+        }
+
+        // then
+        assertThat(tracer.calls).extracting(call -> call.batchSize).containsExactly(3, 1);
+    }
+
+    @Test
+    public void plainStatementUsesExecutedSql() throws SQLException {
+        // when
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("select count(*) from traced");
+        }
+
+        // then
+        assertThat(tracer.calls).extracting(call -> call.sql).containsExactly("select count(*) from traced");
+    }
+
+    @Test
+    public void proxyEqualsItself() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Connection other = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // then
+            assertThat(connection).isEqualTo(connection).isNotEqualTo(other);
+            assertThat(connection.hashCode()).isEqualTo(connection.hashCode());
+            assertThat(statement).isEqualTo(statement);
+        }
+    }
+
+    @Test
+    public void statementReturnsTracedConnection() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            // when
+            Connection fromStatement = statement.getConnection();
+            try (Statement second = fromStatement.createStatement()) {
+                second.execute("select count(*) from traced");
+            }
+
+            // then
+            assertThat(fromStatement).isSameAs(connection);
+            assertThat(tracer.calls).hasSize(1);
+        }
+    }
+
+    private static final class Call {
+        private final String sql;
+        private final List<Object> parameters;
+        private final int batchSize;
+
+        private Call(String sql, List<Object> parameters, int batchSize) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+        }
+    }
+
+    //샘플링 판단 없이 TracingDataSource 가 넘긴 값을 그대로 모은다
+    private static final class CapturingTracer extends SqlTracer {
+
+        private final List<Call> calls = new ArrayList<>();
+
+        private CapturingTracer() {
+            super(new SqlTraceProperties(), new SimpleMeterRegistry(), false);
+        }
+
+        @Override
+        void executed(String sql, Object[] parameters, int parameterCount, int batchSize, long elapsedNanos) {
+            calls.add(new Call(sql, Arrays.asList(Arrays.copyOf(parameters, parameterCount)), batchSize));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class MemberSeederTest {
+
+    @Autowired MemberSeeder memberSeeder;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void seedIsIdempotent() {
+        // given 시작할 때 readiness 이벤트로 한 번 적재됐다
+        assertThat(memberRepository.findByNames(List.of("member0", "member99"))).hasSize(2);
+
+        // when
+        int saved = memberSeeder.seed();
+
+        // then
+        assertThat(saved).isEqualTo(0);
+        assertThat(memberRepository.findByNames(List.of("member0", "member99"))).hasSize(2);
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.support;
+
+import study.datajpa.sql.QueryCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테스트용 SQL 수 검증. 검증할 구간 앞에서 {@link QueryCounter#reset()} 을 호출한다.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static void assertSelectCount(int expected) {
+        assertThat(QueryCounter.selectCount()).as("select count").isEqualTo(expected);
+    }
+
+    public static void assertInsertCount(int expected) {
+        assertThat(QueryCounter.insertCount()).as("insert count").isEqualTo(expected);
+    }
+
+    public static void assertUpdateCount(int expected) {
+        assertThat(QueryCounter.updateCount()).as("update count").isEqualTo(expected);
+    }
+}